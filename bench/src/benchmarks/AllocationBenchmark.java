@@ -0,0 +1,95 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controllers.AsyncRecommendationService;
+import controllers.RecommendationEngine;
+import controllers.RecommendationService;
+import controllers.ResultBuffer;
+import model.Program;
+import model.ProgramRepository;
+
+/**
+ * {@link RecommendationEngine#recommend} versus the buffer-reusing
+ * {@link RecommendationEngine#recommendInto}. Run with {@code -prof gc}: the
+ * {@code gc.alloc.rate.norm} of {@code recommendInto} should be close to zero
+ * bytes per operation at every selectivity.
+ * <p>
+ * {@code recommendAsync} runs the same query through
+ * {@link AsyncRecommendationService}, on a new virtual thread each time, with
+ * the result cache disabled so every call reaches the engine. Its
+ * {@code gc.alloc.rate.norm} should stay close to {@code recommend}'s and must
+ * not grow with {@code catalogSize}: the engine's match and sort buffers are
+ * pooled, not tied to the calling thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Thread)
+public class AllocationBenchmark {
+
+	@Param({ "10000", "100000" })
+	public int catalogSize;
+
+	@Param({ "0.01", "0.5" })
+	public double selectivity;
+
+	private RecommendationEngine engine;
+	private RecommendationEngine.Input input;
+	private final ResultBuffer buffer = new ResultBuffer();
+	private AsyncRecommendationService async;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, SQLException {
+		List<Program> programs = CatalogGenerator.programs(catalogSize, 42L);
+		engine = new RecommendationEngine(programs);
+		input = CatalogGenerator.inputForSelectivity(programs, selectivity);
+
+		Path file = Path.of("bench", "results", "catalog-" + catalogSize + ".db");
+		CatalogGenerator.writeDatabase(file, programs);
+		System.setProperty("degree.db.path", file.toString());
+		System.setProperty("degree.recommend.cache.size", "0");
+		async = new AsyncRecommendationService(RecommendationService.create(ProgramRepository.getInstance()));
+		async.recommendAsync(input).join();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		async.close();
+	}
+
+	@Benchmark
+	public List<RecommendationEngine.Recommendation> recommend() {
+		return engine.recommend(input);
+	}
+
+	@Benchmark
+	public int recommendInto() {
+		return engine.recommendInto(input, buffer);
+	}
+
+	@Benchmark
+	public List<RecommendationEngine.Recommendation> recommendAsync() {
+		return async.recommendAsync(input).join();
+	}
+}
@@ -0,0 +1,40 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and always writes JSON results to
+ * {@code bench/results/jmh-<timestamp>.json} so runs can be diffed between
+ * releases. Any standard JMH command-line option (benchmark regex,
+ * {@code -p catalogSize=1000}, {@code -prof gc}, ...) is passed through.
+ */
+public final class BenchmarkRunner {
+
+	private BenchmarkRunner() {
+	}
+
+	public static void main(String[] args) throws IOException, RunnerException, CommandLineOptionException {
+		Path results = Path.of("bench", "results");
+		Files.createDirectories(results);
+		String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.resultFormat(ResultFormatType.JSON)
+				.result(results.resolve("jmh-" + stamp + ".json").toString())
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,151 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import controllers.RecommendationEngine;
+import model.Program;
+
+/**
+ * Deterministic synthetic catalogs for the benchmarks. Salaries are spread
+ * uniformly over the range the admin form accepts, GPAs sit on the 0.1 grid the
+ * student form uses, and interest levels are uniform unless a skew is asked for.
+ */
+public final class CatalogGenerator {
+	public static final double MIN_SALARY = 1_200;
+	public static final double MAX_SALARY = 100_000;
+	private static final String[] CATEGORIES = { "Engineering", "Business", "Science", "Arts", "Health", "Law",
+			"Education", "Computing" };
+
+	private CatalogGenerator() {
+	}
+
+	public static List<Program> programs(int size, long seed) {
+		return programs(size, seed, 0.0);
+	}
+
+	/**
+	 * @param gpaSkew 0 for uniform GPA requirements; towards 1 concentrates
+	 *                requirements near 4.0 so the GPA predicate becomes the most
+	 *                selective one
+	 */
+	public static List<Program> programs(int size, long seed, double gpaSkew) {
+		SplittableRandom random = new SplittableRandom(seed);
+		Program.InterestLevel[] levels = Program.InterestLevel.values();
+		List<Program> programs = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			double salary = Math.floor(MIN_SALARY + random.nextDouble() * (MAX_SALARY - MIN_SALARY));
+			double u = random.nextDouble();
+			double gpaFraction = gpaSkew <= 0.0 ? u : Math.pow(u, 1.0 - Math.min(gpaSkew, 0.99));
+			double requiredGpa = Math.round(gpaFraction * 40.0) / 10.0;
+			double postDegreeGpa = Math.round(random.nextDouble() * 40.0) / 10.0;
+			programs.add(new Program(i + 1, String.format("Program %08d", i),
+					CATEGORIES[random.nextInt(CATEGORIES.length)], salary, requiredGpa,
+					levels[random.nextInt(levels.length)], postDegreeGpa));
+		}
+		return programs;
+	}
+
+	/**
+	 * An input matching roughly {@code selectivity} of the catalog: the GPA and
+	 * interest bounds admit everything and the salary bound is set at the
+	 * matching quantile.
+	 */
+	public static RecommendationEngine.Input inputForSelectivity(List<Program> programs, double selectivity) {
+		double[] salaries = new double[programs.size()];
+		for (int i = 0; i < salaries.length; i++) {
+			salaries[i] = programs.get(i).getMinIndustrySalary();
+		}
+		Arrays.sort(salaries);
+		int cut = (int) Math.min(salaries.length - 1L, Math.round((1.0 - selectivity) * salaries.length));
+		double salary = salaries.length == 0 ? 0.0 : salaries[Math.max(0, cut)];
+		return new RecommendationEngine.Input(salary, 4.0, Program.InterestLevel.VERY_HIGH);
+	}
+
+	public static List<RecommendationEngine.Input> randomInputs(int count, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		Program.InterestLevel[] levels = Program.InterestLevel.values();
+		List<RecommendationEngine.Input> inputs = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			double salary = Math.floor(MIN_SALARY + random.nextDouble() * (MAX_SALARY - MIN_SALARY));
+			inputs.add(new RecommendationEngine.Input(salary, random.nextInt(41) / 10.0,
+					levels[random.nextInt(levels.length)]));
+		}
+		return inputs;
+	}
+
+	/**
+	 * Writes {@code programs} into a fresh SQLite file with the application
+	 * schema. Point the app at it with {@code -Ddegree.db.path=<file>}.
+	 */
+	public static Path writeDatabase(Path file, List<Program> programs) throws IOException, SQLException {
+		Files.deleteIfExists(file);
+		Files.createDirectories(file.toAbsolutePath().getParent());
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file)) {
+			try (Statement stmt = connection.createStatement()) {
+				stmt.executeUpdate("""
+						CREATE TABLE categories (
+							id INTEGER PRIMARY KEY AUTOINCREMENT,
+							name TEXT NOT NULL UNIQUE,
+							description TEXT
+						)
+						""");
+				stmt.executeUpdate("""
+						CREATE TABLE programs (
+							id INTEGER PRIMARY KEY AUTOINCREMENT,
+							name TEXT NOT NULL UNIQUE,
+							category_id INTEGER NOT NULL,
+							min_salary REAL NOT NULL,
+							min_previous_gpa REAL NOT NULL,
+							interest_level TEXT NOT NULL,
+							post_degree_gpa REAL NOT NULL,
+							created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+							FOREIGN KEY(category_id) REFERENCES categories(id) ON DELETE CASCADE
+						)
+						""");
+			}
+			connection.setAutoCommit(false);
+			try (PreparedStatement stmt = connection.prepareStatement(
+					"INSERT INTO categories(id, name, description) VALUES (?, ?, '')")) {
+				for (int i = 0; i < CATEGORIES.length; i++) {
+					stmt.setInt(1, i + 1);
+					stmt.setString(2, CATEGORIES[i]);
+					stmt.addBatch();
+				}
+				stmt.executeBatch();
+			}
+			try (PreparedStatement stmt = connection.prepareStatement("""
+					INSERT INTO programs(name, category_id, min_salary, min_previous_gpa, interest_level, post_degree_gpa)
+					VALUES (?, ?, ?, ?, ?, ?)
+					""")) {
+				int pending = 0;
+				for (Program p : programs) {
+					stmt.setString(1, p.getName());
+					stmt.setInt(2, Arrays.asList(CATEGORIES).indexOf(p.getCategory()) + 1);
+					stmt.setDouble(3, p.getMinIndustrySalary());
+					stmt.setDouble(4, p.getMinRequiredPreviousGPA());
+					stmt.setString(5, p.getAnalyticalInterestRequired().name());
+					stmt.setDouble(6, p.getRequiredAcceptableGPAAfterDegree());
+					stmt.addBatch();
+					if (++pending == 10_000) {
+						stmt.executeBatch();
+						pending = 0;
+					}
+				}
+				stmt.executeBatch();
+			}
+			connection.commit();
+		}
+		return file;
+	}
+}
@@ -0,0 +1,100 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controllers.NearMiss;
+import controllers.NearMissWeights;
+import controllers.RecommendationEngine;
+import model.Program;
+
+/**
+ * The five closest near misses for queries that match nothing: the engine's
+ * k-d tree search against a linear scan that scores every program.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Thread)
+public class NearMissBenchmark {
+
+	private static final int K = 5;
+
+	@Param({ "100000", "1000000" })
+	public int catalogSize;
+
+	private List<Program> programs;
+	private RecommendationEngine engine;
+	private final List<RecommendationEngine.Input> inputs = new ArrayList<>();
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		programs = CatalogGenerator.programs(catalogSize, 42L);
+		engine = new RecommendationEngine(programs);
+		Random random = new Random(7L);
+		while (inputs.size() < 256) {
+			RecommendationEngine.Input input = new RecommendationEngine.Input(
+					CatalogGenerator.MAX_SALARY * (0.9 + 0.2 * random.nextDouble()), random.nextInt(20) / 10.0,
+					Program.InterestLevel.values()[random.nextInt(2)]);
+			if (engine.recommend(input).isEmpty()) {
+				inputs.add(input);
+			}
+		}
+		// Builds the tree outside the measurement.
+		engine.nearMisses(inputs.get(0), K);
+	}
+
+	private RecommendationEngine.Input nextInput() {
+		RecommendationEngine.Input input = inputs.get(next);
+		next = (next + 1) & (inputs.size() - 1);
+		return input;
+	}
+
+	@Benchmark
+	public List<NearMiss> tree() {
+		return engine.nearMisses(nextInput(), K);
+	}
+
+	@Benchmark
+	public double[] linearScan() {
+		RecommendationEngine.Input input = nextInput();
+		NearMissWeights weights = NearMissWeights.DEFAULT;
+		double[] best = new double[K];
+		Arrays.fill(best, Double.POSITIVE_INFINITY);
+		for (Program p : programs) {
+			double salary = Math.max(0.0, input.minAcceptableSalary - p.getMinIndustrySalary());
+			double gpa = Math.max(0.0, p.getMinRequiredPreviousGPA() - input.previousGPA);
+			int interest = Math.max(0, p.getAnalyticalInterestRequired().rank() - input.studentInterest.rank());
+			double distance = weights.perThousandSalary() * salary / 1_000.0 + weights.perGpaPoint() * gpa
+					+ weights.perInterestLevel() * interest;
+			if (distance > 0.0 && distance < best[K - 1]) {
+				int i = K - 1;
+				while (i > 0 && best[i - 1] > distance) {
+					best[i] = best[i - 1];
+					i--;
+				}
+				best[i] = distance;
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,73 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controllers.RecommendationEngine;
+import controllers.ResultBuffer;
+import model.Program;
+
+/**
+ * Fixed GPA-first predicate order versus the adaptive scalar kernel on
+ * catalogs whose GPA requirements are uniform or skewed towards 4.0. The
+ * salary bound admits the whole catalog so the GPA/interest scan dominates.
+ * Both variants run the scalar kernel; the order is chosen per fork through
+ * {@code degree.recommend.predicateOrder}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Thread)
+public class PredicateOrderBenchmark {
+
+	@Param({ "100000" })
+	public int catalogSize;
+
+	@Param({ "0.0", "0.9" })
+	public double gpaSkew;
+
+	@Param({ "2.0", "3.5" })
+	public double previousGpa;
+
+	@Param({ "LOW", "MEDIUM", "VERY_HIGH" })
+	public Program.InterestLevel interest;
+
+	private RecommendationEngine engine;
+	private RecommendationEngine.Input input;
+	private final ResultBuffer buffer = new ResultBuffer();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		List<Program> programs = CatalogGenerator.programs(catalogSize, 42L, gpaSkew);
+		engine = new RecommendationEngine(programs);
+		input = new RecommendationEngine.Input(0.0, previousGpa, interest);
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = { "-Ddegree.recommend.scalarKernel=true",
+			"-Ddegree.recommend.predicateOrder=fixed" })
+	public int fixedOrder() {
+		return engine.recommendInto(input, buffer);
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = { "-Ddegree.recommend.scalarKernel=true",
+			"-Ddegree.recommend.predicateOrder=adaptive" })
+	public int adaptiveOrder() {
+		return engine.recommendInto(input, buffer);
+	}
+}
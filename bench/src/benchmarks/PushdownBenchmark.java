@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controllers.PushdownRecommender;
+import controllers.RecommendationEngine;
+import model.Program;
+import model.ProgramRepository;
+
+/**
+ * In-memory engine versus SQL pushdown for the same query as the catalog
+ * grows. The in-memory side excludes the one-off catalog load and index build;
+ * compare with {@code RepositoryBenchmark.reloadCatalog} for that cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Benchmark)
+public class PushdownBenchmark {
+
+	@Param({ "1000", "10000", "100000", "1000000" })
+	public int catalogSize;
+
+	@Param({ "0.001", "0.01", "0.1", "0.5" })
+	public double selectivity;
+
+	private RecommendationEngine engine;
+	private PushdownRecommender pushdown;
+	private RecommendationEngine.Input input;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, SQLException {
+		List<Program> programs = CatalogGenerator.programs(catalogSize, 42L);
+		Path file = Path.of("bench", "results", "catalog-" + catalogSize + ".db");
+		CatalogGenerator.writeDatabase(file, programs);
+		System.setProperty("degree.db.path", file.toString());
+
+		ProgramRepository repository = ProgramRepository.getInstance();
+		engine = new RecommendationEngine(repository.getPrograms());
+		pushdown = new PushdownRecommender(repository);
+		input = CatalogGenerator.inputForSelectivity(programs, selectivity);
+	}
+
+	@Benchmark
+	public List<RecommendationEngine.Recommendation> inMemory() {
+		return engine.recommend(input);
+	}
+
+	@Benchmark
+	public List<RecommendationEngine.Recommendation> pushdown() {
+		return pushdown.recommend(input);
+	}
+}
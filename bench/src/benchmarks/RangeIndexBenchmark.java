@@ -0,0 +1,106 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controllers.ProgramRangeIndex;
+import controllers.RecommendationEngine;
+import controllers.ResultBuffer;
+import model.Program;
+
+/**
+ * The dominance query (salary, GPA, interest) through {@link ProgramRangeIndex}
+ * against the original stream filter over the program list and the engine's
+ * salary-sorted scan, plus the cost of an index insert and delete.
+ * {@code selective} keeps only queries matching at most 0.1% of the catalog,
+ * where pruning by all three dimensions pays off most.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx6g", "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Thread)
+public class RangeIndexBenchmark {
+
+	@Param({ "1000000", "4000000" })
+	public int catalogSize;
+
+	@Param({ "random", "selective" })
+	public String workload;
+
+	private List<Program> programs;
+	private ProgramRangeIndex index;
+	private RecommendationEngine engine;
+	private final ResultBuffer buffer = new ResultBuffer();
+	private final List<RecommendationEngine.Input> inputs = new ArrayList<>();
+	private int next;
+	private int nextId;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		programs = CatalogGenerator.programs(catalogSize, 42L);
+		index = ProgramRangeIndex.build(programs);
+		engine = new RecommendationEngine(programs);
+		long seed = 1L;
+		while (inputs.size() < 256) {
+			for (RecommendationEngine.Input input : CatalogGenerator.randomInputs(256, seed++)) {
+				if (inputs.size() < 256 && (workload.equals("random")
+						|| engine.recommendInto(input, buffer) <= catalogSize / 1_000)) {
+					inputs.add(input);
+				}
+			}
+		}
+		nextId = catalogSize + 1;
+	}
+
+	private RecommendationEngine.Input nextInput() {
+		RecommendationEngine.Input input = inputs.get(next);
+		next = (next + 1) & (inputs.size() - 1);
+		return input;
+	}
+
+	@Benchmark
+	public List<Program> streamFilter() {
+		RecommendationEngine.Input input = nextInput();
+		return programs.stream()
+				.filter(p -> p.getMinIndustrySalary() >= input.minAcceptableSalary)
+				.filter(p -> input.previousGPA >= p.getMinRequiredPreviousGPA())
+				.filter(p -> input.studentInterest.rank() >= p.getAnalyticalInterestRequired().rank())
+				.toList();
+	}
+
+	@Benchmark
+	public List<Program> rangeIndex() {
+		return index.query(nextInput());
+	}
+
+	@Benchmark
+	public int engineScan() {
+		return engine.recommendInto(nextInput(), buffer);
+	}
+
+	@Benchmark
+	public boolean insertThenDelete() {
+		Program template = programs.get(nextId & 255);
+		Program program = new Program(nextId++, template.getName(), template.getCategory(),
+				template.getMinIndustrySalary(), template.getMinRequiredPreviousGPA(),
+				template.getAnalyticalInterestRequired(), template.getRequiredAcceptableGPAAfterDegree());
+		index.insert(program);
+		return index.delete(program.getId());
+	}
+}
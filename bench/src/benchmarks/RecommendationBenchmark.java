@@ -0,0 +1,54 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controllers.RecommendationEngine;
+import model.Program;
+
+/**
+ * {@link RecommendationEngine#recommend} across catalog sizes and selectivities.
+ * The engine is built once per trial, as it is in production.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g", "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Benchmark)
+public class RecommendationBenchmark {
+
+	@Param({ "100", "1000", "10000", "100000", "1000000", "10000000" })
+	public int catalogSize;
+
+	@Param({ "0.001", "0.01", "0.1", "0.5" })
+	public double selectivity;
+
+	private RecommendationEngine engine;
+	private RecommendationEngine.Input input;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		List<Program> programs = CatalogGenerator.programs(catalogSize, 42L);
+		engine = new RecommendationEngine(programs);
+		input = CatalogGenerator.inputForSelectivity(programs, selectivity);
+	}
+
+	@Benchmark
+	public List<RecommendationEngine.Recommendation> recommend() {
+		return engine.recommend(input);
+	}
+}
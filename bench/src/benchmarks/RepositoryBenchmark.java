@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Program;
+import model.ProgramCatalog;
+import model.ProgramRepository;
+
+/**
+ * {@link ProgramRepository} reads against a generated SQLite file. Each fork is
+ * a fresh JVM, so the database path is set before DatabaseManager first opens
+ * the pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+	@Param({ "100", "10000", "100000" })
+	public int catalogSize;
+
+	private ProgramRepository repository;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, SQLException {
+		Path file = Path.of("bench", "results", "catalog-" + catalogSize + ".db");
+		CatalogGenerator.writeDatabase(file, CatalogGenerator.programs(catalogSize, 42L));
+		System.setProperty("degree.db.path", file.toString());
+		repository = ProgramRepository.getInstance();
+		repository.getCatalog();
+	}
+
+	/** Steady-state read: served from the in-memory snapshot. */
+	@Benchmark
+	public List<Program> getPrograms() {
+		return repository.getPrograms();
+	}
+
+	/** Cold path after a write: re-runs the join and materializes every program. */
+	@Benchmark
+	public ProgramCatalog reloadCatalog() {
+		return repository.reloadCatalog();
+	}
+}
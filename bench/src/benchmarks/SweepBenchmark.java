@@ -0,0 +1,78 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controllers.RecommendationEngine;
+import controllers.ResultBuffer;
+import controllers.SensitivitySweep;
+import model.Program;
+
+/**
+ * A 100 salary x 41 GPA {@link SensitivitySweep} against one query over the
+ * whole catalog and against answering every grid cell with its own query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Thread)
+public class SweepBenchmark {
+
+	@Param({ "10000", "100000" })
+	public int catalogSize;
+
+	private RecommendationEngine engine;
+	private final double[] salaries = new double[100];
+	private final double[] gpas = new double[41];
+	private final ResultBuffer buffer = new ResultBuffer();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		List<Program> programs = CatalogGenerator.programs(catalogSize, 42L);
+		engine = new RecommendationEngine(programs);
+		for (int i = 0; i < salaries.length; i++) {
+			salaries[i] = CatalogGenerator.MIN_SALARY
+					+ i * (CatalogGenerator.MAX_SALARY - CatalogGenerator.MIN_SALARY) / salaries.length;
+		}
+		for (int i = 0; i < gpas.length; i++) {
+			gpas[i] = i / 10.0;
+		}
+	}
+
+	@Benchmark
+	public SensitivitySweep sweep() {
+		return engine.sweep(salaries, gpas, Program.InterestLevel.HIGH);
+	}
+
+	@Benchmark
+	public int singleQuery() {
+		return engine.recommendInto(new RecommendationEngine.Input(0.0, 4.0, Program.InterestLevel.HIGH), buffer);
+	}
+
+	@Benchmark
+	public long queryPerCell() {
+		long total = 0;
+		for (double salary : salaries) {
+			for (double gpa : gpas) {
+				total += engine.recommendInto(new RecommendationEngine.Input(salary, gpa, Program.InterestLevel.HIGH),
+						buffer);
+			}
+		}
+		return total;
+	}
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import validation.Validator;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorBenchmark {
+
+	@Param({ "valid", "invalid" })
+	public String credentials;
+
+	private String username;
+	private char[] password;
+
+	@Setup
+	public void setUp() {
+		if ("valid".equals(credentials)) {
+			username = "student.one";
+			password = "s3cret!pass".toCharArray();
+		} else {
+			username = "no spaces allowed";
+			password = "short".toCharArray();
+		}
+	}
+
+	@Benchmark
+	public List<String> validateRegistrationCredentials() {
+		return Validator.validateRegistraionCredentials(username, password);
+	}
+}
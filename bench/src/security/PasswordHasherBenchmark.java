@@ -0,0 +1,47 @@
+package security;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lives in the {@code security} package because {@link PasswordHasher} is
+ * package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHasherBenchmark {
+
+	private final char[] password = "s3cret!pass".toCharArray();
+	private String salt;
+	private String hash;
+
+	@Setup
+	public void setUp() {
+		salt = PasswordHasher.generateSalt();
+		hash = PasswordHasher.hash(password, salt);
+	}
+
+	@Benchmark
+	public String hash() {
+		return PasswordHasher.hash(password, salt);
+	}
+
+	@Benchmark
+	public boolean matches() {
+		return PasswordHasher.matches(password, salt, hash);
+	}
+}
@@ -0,0 +1,100 @@
+package controllers;
+
+import java.util.BitSet;
+
+import model.Program;
+
+/**
+ * Precomputed eligibility sets for every (GPA step, interest level) pair the
+ * student form can produce: GPA 0.0 to 4.0 in 0.1 steps and the four interest
+ * levels. Bits are positions in the {@link ProgramIndex} salary order, so the
+ * salary bound of a query is simply the first bit position to read from.
+ */
+final class AnswerTable {
+	static final int GPA_STEPS = 41;
+	private static final int LEVELS = Program.InterestLevel.values().length;
+
+	private final BitSet[][] eligible;
+
+	private AnswerTable(BitSet[][] eligible) {
+		this.eligible = eligible;
+	}
+
+	static AnswerTable build(ProgramIndex index) {
+		// Bucket programs by the first GPA step and the lowest interest level at which they qualify.
+		int[][] bucketSizes = new int[LEVELS][GPA_STEPS];
+		int[] firstStep = new int[index.size()];
+		for (int i = 0; i < index.size(); i++) {
+			firstStep[i] = firstQualifyingStep(index.previousGpas[i]);
+			if (firstStep[i] < GPA_STEPS) {
+				bucketSizes[index.interestRanks[i] - 1][firstStep[i]]++;
+			}
+		}
+		int[][][] buckets = new int[LEVELS][GPA_STEPS][];
+		for (int r = 0; r < LEVELS; r++) {
+			for (int s = 0; s < GPA_STEPS; s++) {
+				buckets[r][s] = new int[bucketSizes[r][s]];
+				bucketSizes[r][s] = 0;
+			}
+		}
+		for (int i = 0; i < index.size(); i++) {
+			if (firstStep[i] < GPA_STEPS) {
+				int r = index.interestRanks[i] - 1;
+				buckets[r][firstStep[i]][bucketSizes[r][firstStep[i]]++] = i;
+			}
+		}
+
+		// Each set is the previous GPA step's set plus the programs that start qualifying at this step.
+		BitSet[][] eligible = new BitSet[LEVELS][GPA_STEPS];
+		for (int level = 0; level < LEVELS; level++) {
+			BitSet accumulated = new BitSet(index.size());
+			for (int s = 0; s < GPA_STEPS; s++) {
+				for (int required = 0; required <= level; required++) {
+					for (int position : buckets[required][s]) {
+						accumulated.set(position);
+					}
+				}
+				eligible[level][s] = (BitSet) accumulated.clone();
+			}
+		}
+		return new AnswerTable(eligible);
+	}
+
+	/**
+	 * Returns the precomputed set for this input, or {@code null} when the GPA is
+	 * not exactly on the 0.1 grid and the caller must use the exact path.
+	 */
+	BitSet lookup(double previousGPA, Program.InterestLevel interest) {
+		int step = gridStep(previousGPA);
+		if (step < 0) {
+			return null;
+		}
+		return eligible[interest.rank() - 1][step];
+	}
+
+	static int gridStep(double gpa) {
+		long step = Math.round(gpa * 10.0);
+		if (step < 0 || step >= GPA_STEPS || step / 10.0 != gpa) {
+			return -1;
+		}
+		return (int) step;
+	}
+
+	// Smallest step s with s / 10.0 >= minGpa, matching the engine's "previousGPA >= required" check.
+	private static int firstQualifyingStep(double minGpa) {
+		if (Double.isNaN(minGpa)) {
+			return GPA_STEPS;
+		}
+		if (minGpa <= 0.0) {
+			return 0;
+		}
+		int step = (int) Math.min(GPA_STEPS, Math.ceil(minGpa * 10.0));
+		while (step > 0 && (step - 1) / 10.0 >= minGpa) {
+			step--;
+		}
+		while (step < GPA_STEPS && step / 10.0 < minGpa) {
+			step++;
+		}
+		return step;
+	}
+}
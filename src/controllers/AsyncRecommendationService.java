@@ -0,0 +1,175 @@
+package controllers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking facade over {@link RecommendationService}. Each request runs on
+ * its own virtual thread, so callers such as the Swing event thread never wait
+ * on the catalog load or the filter, and blocking in the database does not tie
+ * up a platform thread.
+ * <p>
+ * At most {@code maxInFlight} requests run at once; further requests fail
+ * immediately with {@link RejectedExecutionException} instead of queueing.
+ * A request that outlives its timeout completes with {@link TimeoutException},
+ * and timing out or cancelling the returned future interrupts the worker. Work
+ * already inside the engine runs to completion, but its result is discarded.
+ */
+public class AsyncRecommendationService implements AutoCloseable {
+
+	public record Stats(int inFlight, long submitted, long completed, long failed, long rejected, long timedOut,
+			long cancelled) {
+	}
+
+	private final RecommendationService service;
+	private final int maxInFlight;
+	private final Duration defaultTimeout;
+	private final Semaphore permits;
+	private final ExecutorService executor = Executors
+			.newThreadPerTaskExecutor(Thread.ofVirtual().name("recommend-", 0).factory());
+
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder timedOut = new LongAdder();
+	private final LongAdder cancelled = new LongAdder();
+
+	/**
+	 * Uses {@code degree.recommend.maxInFlight} (default 256) and
+	 * {@code degree.recommend.timeoutMs} (default 5000; 0 disables the timeout).
+	 */
+	public AsyncRecommendationService(RecommendationService service) {
+		this(service, Integer.getInteger("degree.recommend.maxInFlight", 256),
+				Duration.ofMillis(Long.getLong("degree.recommend.timeoutMs", 5_000L)));
+	}
+
+	public AsyncRecommendationService(RecommendationService service, int maxInFlight, Duration defaultTimeout) {
+		this.service = Objects.requireNonNull(service, "service");
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException("maxInFlight must be positive.");
+		}
+		this.maxInFlight = maxInFlight;
+		this.defaultTimeout = Objects.requireNonNull(defaultTimeout, "defaultTimeout");
+		this.permits = new Semaphore(maxInFlight);
+	}
+
+	public RecommendationService getService() {
+		return service;
+	}
+
+	public CompletableFuture<List<RecommendationEngine.Recommendation>> recommendAsync(
+			RecommendationEngine.Input input) {
+		return recommendAsync(input, defaultTimeout);
+	}
+
+	/**
+	 * Starts a recommendation on a virtual thread. {@code timeout} of zero or
+	 * less means no timeout.
+	 */
+	public CompletableFuture<List<RecommendationEngine.Recommendation>> recommendAsync(
+			RecommendationEngine.Input input, Duration timeout) {
+		Objects.requireNonNull(input, "input");
+		return submit(() -> service.recommend(input), timeout);
+	}
+
+	/**
+	 * Starts {@link RecommendationService#recommendWithFacets} on a virtual
+	 * thread with the default timeout.
+	 */
+	public CompletableFuture<FacetedResults> recommendWithFacetsAsync(RecommendationEngine.Input input) {
+		Objects.requireNonNull(input, "input");
+		return submit(() -> service.recommendWithFacets(input), defaultTimeout);
+	}
+
+	/**
+	 * Looks up the {@code k} closest near misses for {@code input} (see
+	 * {@link RecommendationService#nearMisses}) under the same in-flight limit
+	 * and default timeout as recommendations.
+	 */
+	public CompletableFuture<List<NearMiss>> nearMissesAsync(RecommendationEngine.Input input, int k) {
+		Objects.requireNonNull(input, "input");
+		return submit(() -> service.nearMisses(input, k), defaultTimeout);
+	}
+
+	private <T> CompletableFuture<T> submit(Supplier<T> work, Duration timeout) {
+		Objects.requireNonNull(timeout, "timeout");
+		if (!permits.tryAcquire()) {
+			rejected.increment();
+			return CompletableFuture.failedFuture(new RejectedExecutionException(
+					"Too many recommendation requests in flight (limit " + maxInFlight + ")"));
+		}
+		submitted.increment();
+		CompletableFuture<T> result = new CompletableFuture<>();
+		AtomicReference<Thread> worker = new AtomicReference<>();
+		try {
+			executor.execute(() -> run(work, result, worker));
+		} catch (RejectedExecutionException ex) {
+			// Only happens after close().
+			permits.release();
+			result.completeExceptionally(ex);
+			return result;
+		}
+		if (!timeout.isZero() && !timeout.isNegative()) {
+			result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+		}
+		result.whenComplete((value, ex) -> {
+			if (ex == null) {
+				completed.increment();
+				return;
+			}
+			if (ex instanceof TimeoutException) {
+				timedOut.increment();
+			} else if (ex instanceof CancellationException) {
+				cancelled.increment();
+			} else {
+				failed.increment();
+			}
+			Thread thread = worker.get();
+			if (thread != null) {
+				thread.interrupt();
+			}
+		});
+		return result;
+	}
+
+	// The permit is released here, not on completion, so a timed-out request counts until its worker exits.
+	private <T> void run(Supplier<T> work, CompletableFuture<T> result, AtomicReference<Thread> worker) {
+		worker.set(Thread.currentThread());
+		try {
+			if (!result.isDone()) {
+				result.complete(work.get());
+			}
+		} catch (RuntimeException | Error ex) {
+			result.completeExceptionally(ex);
+		} finally {
+			worker.set(null);
+			permits.release();
+		}
+	}
+
+	public Stats stats() {
+		return new Stats(maxInFlight - permits.availablePermits(), submitted.sum(), completed.sum(), failed.sum(),
+				rejected.sum(), timedOut.sum(), cancelled.sum());
+	}
+
+	/**
+	 * Stops accepting requests and waits for the running ones to finish.
+	 */
+	@Override
+	public void close() {
+		executor.close();
+	}
+}
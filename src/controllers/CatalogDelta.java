@@ -0,0 +1,109 @@
+package controllers;
+
+import java.util.Arrays;
+
+import model.Program;
+import model.ProgramCatalog;
+
+/**
+ * Program writes applied on top of an engine's immutable {@link ProgramIndex}:
+ * programs inserted since the index was built, in name order, and the catalog
+ * positions of indexed programs that have since been deleted or replaced.
+ * Each inserted program also records its base rank, the number of indexed
+ * programs whose names sort before it, so results can be merged in catalog
+ * order without comparing strings, and its category code in the base
+ * index's dictionary.
+ * Instances are immutable; each change copies the (small) overlay, so readers
+ * holding an older engine never see it move.
+ */
+final class CatalogDelta {
+	static final CatalogDelta EMPTY = new CatalogDelta(new Program[0], new int[0], new int[0], new int[0]);
+
+	final Program[] inserted;
+	// Parallel to inserted; non-decreasing because both follow name order.
+	final int[] insertedRanks;
+	// Parallel to inserted; codes into the base index's category dictionary.
+	final int[] insertedCategories;
+	// Sorted catalog positions in the base index.
+	final int[] deleted;
+
+	private CatalogDelta(Program[] inserted, int[] insertedRanks, int[] insertedCategories, int[] deleted) {
+		this.inserted = inserted;
+		this.insertedRanks = insertedRanks;
+		this.insertedCategories = insertedCategories;
+		this.deleted = deleted;
+	}
+
+	int size() {
+		return inserted.length + deleted.length;
+	}
+
+	boolean isEmpty() {
+		return size() == 0;
+	}
+
+	boolean isDeleted(int catalogPosition) {
+		return deleted.length > 0 && Arrays.binarySearch(deleted, catalogPosition) >= 0;
+	}
+
+	CatalogDelta withInsert(Program program, int baseRank, int categoryCode) {
+		int low = 0;
+		int high = inserted.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (ProgramCatalog.compareNames(inserted[mid].getName(), program.getName()) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		Program[] next = new Program[inserted.length + 1];
+		System.arraycopy(inserted, 0, next, 0, low);
+		next[low] = program;
+		System.arraycopy(inserted, low, next, low + 1, inserted.length - low);
+		int[] ranks = new int[next.length];
+		System.arraycopy(insertedRanks, 0, ranks, 0, low);
+		ranks[low] = baseRank;
+		System.arraycopy(insertedRanks, low, ranks, low + 1, insertedRanks.length - low);
+		int[] categories = new int[next.length];
+		System.arraycopy(insertedCategories, 0, categories, 0, low);
+		categories[low] = categoryCode;
+		System.arraycopy(insertedCategories, low, categories, low + 1, insertedCategories.length - low);
+		return new CatalogDelta(next, ranks, categories, deleted);
+	}
+
+	CatalogDelta withDeleted(int catalogPosition) {
+		int at = Arrays.binarySearch(deleted, catalogPosition);
+		if (at >= 0) {
+			return this;
+		}
+		at = -at - 1;
+		int[] next = new int[deleted.length + 1];
+		System.arraycopy(deleted, 0, next, 0, at);
+		next[at] = catalogPosition;
+		System.arraycopy(deleted, at, next, at + 1, deleted.length - at);
+		return new CatalogDelta(inserted, insertedRanks, insertedCategories, next);
+	}
+
+	/**
+	 * Drops a previously inserted program, or returns {@code null} if
+	 * {@code programId} is not in the overlay.
+	 */
+	CatalogDelta withoutInserted(int programId) {
+		for (int i = 0; i < inserted.length; i++) {
+			if (inserted[i].getId() == programId) {
+				Program[] next = new Program[inserted.length - 1];
+				System.arraycopy(inserted, 0, next, 0, i);
+				System.arraycopy(inserted, i + 1, next, i, next.length - i);
+				int[] ranks = new int[next.length];
+				System.arraycopy(insertedRanks, 0, ranks, 0, i);
+				System.arraycopy(insertedRanks, i + 1, ranks, i, ranks.length - i);
+				int[] categories = new int[next.length];
+				System.arraycopy(insertedCategories, 0, categories, 0, i);
+				System.arraycopy(insertedCategories, i + 1, categories, i, categories.length - i);
+				return new CatalogDelta(next, ranks, categories, deleted);
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,139 @@
+package controllers;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import model.Program;
+import model.ProgramRepository;
+
+/**
+ * Summary of the {@code programs} table used by {@link RecommendationPlanner}:
+ * row count, an equi-depth salary histogram, a GPA histogram on the 0.1 grid
+ * and the interest-level distribution. Selectivities are estimated per
+ * predicate and combined assuming independence.
+ */
+public final class CatalogStatistics {
+	private static final int SALARY_BUCKETS = 64;
+	private static final int GPA_CELLS = 41;
+
+	private final long rowCount;
+	// Bucket boundaries: salaryBounds[i] is the salary at quantile i / SALARY_BUCKETS.
+	private final double[] salaryBounds;
+	// gpaAtOrBelow[s] = fraction of programs whose required GPA is <= s / 10.
+	private final double[] gpaAtOrBelow;
+	// rankAtOrBelow[r - 1] = fraction of programs requiring interest rank <= r.
+	private final double[] rankAtOrBelow;
+
+	private CatalogStatistics(long rowCount, double[] salaryBounds, double[] gpaAtOrBelow, double[] rankAtOrBelow) {
+		this.rowCount = rowCount;
+		this.salaryBounds = salaryBounds;
+		this.gpaAtOrBelow = gpaAtOrBelow;
+		this.rankAtOrBelow = rankAtOrBelow;
+	}
+
+	static CatalogStatistics collect(ProgramRepository repository) throws SQLException {
+		Collector collector = new Collector();
+		repository.scanRequirements(collector::add);
+		return collector.build();
+	}
+
+	static CatalogStatistics of(List<Program> programs) {
+		Collector collector = new Collector();
+		for (Program p : programs) {
+			collector.add(p.getMinIndustrySalary(), p.getMinRequiredPreviousGPA(), p.getAnalyticalInterestRequired());
+		}
+		return collector.build();
+	}
+
+	public long getRowCount() {
+		return rowCount;
+	}
+
+	public double salarySelectivity(double minSalary) {
+		if (rowCount == 0 || Double.isNaN(minSalary)) {
+			return 0.0;
+		}
+		if (minSalary <= salaryBounds[0]) {
+			return 1.0;
+		}
+		if (minSalary > salaryBounds[SALARY_BUCKETS]) {
+			return 0.0;
+		}
+		int bucket = Arrays.binarySearch(salaryBounds, minSalary);
+		if (bucket < 0) {
+			bucket = -bucket - 2;
+		}
+		bucket = Math.min(bucket, SALARY_BUCKETS - 1);
+		double low = salaryBounds[bucket];
+		double high = salaryBounds[bucket + 1];
+		double within = high > low ? (minSalary - low) / (high - low) : 0.0;
+		double below = (bucket + within) / SALARY_BUCKETS;
+		return Math.max(0.0, Math.min(1.0, 1.0 - below));
+	}
+
+	public double gpaSelectivity(double previousGpa) {
+		if (rowCount == 0 || Double.isNaN(previousGpa) || previousGpa < 0.0) {
+			return 0.0;
+		}
+		int cell = (int) Math.floor(previousGpa * 10.0 + 1e-9);
+		return gpaAtOrBelow[Math.min(cell, GPA_CELLS - 1)];
+	}
+
+	public double interestSelectivity(Program.InterestLevel interest) {
+		return rowCount == 0 ? 0.0 : rankAtOrBelow[interest.rank() - 1];
+	}
+
+	public double selectivity(RecommendationEngine.Input input) {
+		return salarySelectivity(input.minAcceptableSalary) * gpaSelectivity(input.previousGPA)
+				* interestSelectivity(input.studentInterest);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CatalogStatistics[rows=%d, salary %.0f..%.0f]", rowCount,
+				rowCount == 0 ? 0.0 : salaryBounds[0], rowCount == 0 ? 0.0 : salaryBounds[SALARY_BUCKETS]);
+	}
+
+	private static final class Collector {
+		private double[] salaries = new double[1024];
+		private final long[] gpaCells = new long[GPA_CELLS + 1];
+		private final long[] rankCounts = new long[Program.InterestLevel.values().length];
+		private int count;
+
+		void add(double salary, double gpa, Program.InterestLevel interest) {
+			if (count == salaries.length) {
+				salaries = Arrays.copyOf(salaries, count * 2);
+			}
+			salaries[count++] = salary;
+			// Cell s holds requirements in ((s - 1) / 10, s / 10]; anything above 4.0 lands in the overflow cell.
+			int cell = gpa <= 0.0 ? 0 : (int) Math.ceil(gpa * 10.0 - 1e-9);
+			gpaCells[Math.min(cell, GPA_CELLS)]++;
+			rankCounts[interest.rank() - 1]++;
+		}
+
+		CatalogStatistics build() {
+			double[] bounds = new double[SALARY_BUCKETS + 1];
+			double[] gpa = new double[GPA_CELLS];
+			double[] ranks = new double[rankCounts.length];
+			if (count > 0) {
+				double[] sorted = Arrays.copyOf(salaries, count);
+				Arrays.sort(sorted);
+				for (int i = 0; i <= SALARY_BUCKETS; i++) {
+					bounds[i] = sorted[(int) Math.min(count - 1L, (long) i * count / SALARY_BUCKETS)];
+				}
+				long running = 0;
+				for (int s = 0; s < GPA_CELLS; s++) {
+					running += gpaCells[s];
+					gpa[s] = (double) running / count;
+				}
+				running = 0;
+				for (int r = 0; r < ranks.length; r++) {
+					running += rankCounts[r];
+					ranks[r] = (double) running / count;
+				}
+			}
+			return new CatalogStatistics(count, bounds, gpa, ranks);
+		}
+	}
+}
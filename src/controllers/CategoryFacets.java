@@ -0,0 +1,100 @@
+package controllers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import model.ProgramCatalog;
+
+/**
+ * Number of matching programs per category for one query, largest first and
+ * then by category name. Categories without matches are left out.
+ */
+public record CategoryFacets(List<Facet> facets) {
+
+	public static final CategoryFacets EMPTY = new CategoryFacets(List.of());
+
+	private static final Comparator<Facet> ORDER = Comparator.comparingInt(Facet::count).reversed()
+			.thenComparing(Facet::category, Comparator.nullsFirst(ProgramCatalog::compareNames));
+
+	public record Facet(String category, int count) {
+	}
+
+	public CategoryFacets {
+		facets = List.copyOf(facets);
+	}
+
+	// counts[code] matches for categories[code]; only the first categories.length counts are read.
+	static CategoryFacets of(String[] categories, int[] counts) {
+		List<Facet> facets = new ArrayList<>();
+		for (int code = 0; code < categories.length; code++) {
+			if (counts[code] > 0) {
+				facets.add(new Facet(categories[code], counts[code]));
+			}
+		}
+		facets.sort(ORDER);
+		return new CategoryFacets(facets);
+	}
+
+	/**
+	 * Groups already materialized results, for paths that do not run the
+	 * engine's filter (such as SQL pushdown).
+	 */
+	static CategoryFacets of(List<RecommendationEngine.Recommendation> results) {
+		Map<String, Integer> counts = new HashMap<>();
+		for (RecommendationEngine.Recommendation r : results) {
+			counts.merge(r.program.getCategory(), 1, Integer::sum);
+		}
+		List<Facet> facets = new ArrayList<>(counts.size());
+		counts.forEach((category, count) -> facets.add(new Facet(category, count)));
+		facets.sort(ORDER);
+		return new CategoryFacets(facets);
+	}
+
+	public int total() {
+		int total = 0;
+		for (Facet facet : facets) {
+			total += facet.count();
+		}
+		return total;
+	}
+
+	public int count(String category) {
+		for (Facet facet : facets) {
+			if (Objects.equals(facet.category(), category)) {
+				return facet.count();
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Short text for a status line, e.g. "12 in Engineering, 4 in Business and
+	 * 3 in 2 other categories", naming at most {@code limit} categories.
+	 */
+	public String summary(int limit) {
+		if (limit < 1) {
+			throw new IllegalArgumentException("limit must be positive.");
+		}
+		List<String> parts = new ArrayList<>(Math.min(limit, facets.size()) + 1);
+		int shown = Math.min(limit, facets.size());
+		for (int i = 0; i < shown; i++) {
+			parts.add(facets.get(i).count() + " in " + facets.get(i).category());
+		}
+		int rest = 0;
+		for (int i = shown; i < facets.size(); i++) {
+			rest += facets.get(i).count();
+		}
+		int others = facets.size() - shown;
+		if (others > 0) {
+			parts.add(rest + " in " + others + (others == 1 ? " other category" : " other categories"));
+		}
+		if (parts.size() <= 1) {
+			return String.join("", parts);
+		}
+		return String.join(", ", parts.subList(0, parts.size() - 1)) + " and " + parts.get(parts.size() - 1);
+	}
+}
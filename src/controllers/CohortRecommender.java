@@ -0,0 +1,148 @@
+package controllers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs recommendations for a whole cohort of students against one prepared
+ * {@link RecommendationEngine}, splitting the inputs over a dedicated
+ * {@link ForkJoinPool}. Results always come back in input order.
+ */
+public class CohortRecommender implements AutoCloseable {
+
+	private final RecommendationEngine engine;
+	private final ForkJoinPool pool;
+
+	public record BatchStats(int inputs, long totalMatches, long elapsedNanos, int parallelism) {
+		public double inputsPerSecond() {
+			return elapsedNanos == 0 ? 0.0 : inputs * 1_000_000_000.0 / elapsedNanos;
+		}
+
+		public double elapsedMillis() {
+			return elapsedNanos / 1_000_000.0;
+		}
+	}
+
+	public record CohortResult(List<List<RecommendationEngine.Recommendation>> results, BatchStats stats) {
+	}
+
+	public CohortRecommender(RecommendationEngine engine) {
+		this(engine, Runtime.getRuntime().availableProcessors());
+	}
+
+	public CohortRecommender(RecommendationEngine engine, int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1.");
+		}
+		this.engine = Objects.requireNonNull(engine, "engine");
+		this.pool = new ForkJoinPool(parallelism);
+	}
+
+	public CohortResult recommendAll(List<RecommendationEngine.Input> inputs) {
+		Objects.requireNonNull(inputs, "inputs");
+		long start = System.nanoTime();
+		List<List<RecommendationEngine.Recommendation>> results = recommendAll(engine, inputs, pool);
+		long elapsed = System.nanoTime() - start;
+		return new CohortResult(results, new BatchStats(inputs.size(), countMatches(results), elapsed,
+				pool.getParallelism()));
+	}
+
+	/**
+	 * Streams a cohort of unknown size through the pool {@code chunkSize} inputs
+	 * at a time, handing each input and its recommendations to {@code sink} in
+	 * input order. Only one chunk of results is held in memory at once.
+	 */
+	public BatchStats recommendCohort(Iterator<RecommendationEngine.Input> inputs, int chunkSize,
+			BiConsumer<RecommendationEngine.Input, List<RecommendationEngine.Recommendation>> sink) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be at least 1.");
+		}
+		Objects.requireNonNull(inputs, "inputs");
+		Objects.requireNonNull(sink, "sink");
+		long start = System.nanoTime();
+		int processed = 0;
+		long matches = 0;
+		List<RecommendationEngine.Input> chunk = new ArrayList<>(chunkSize);
+		while (inputs.hasNext()) {
+			chunk.add(inputs.next());
+			if (chunk.size() == chunkSize || !inputs.hasNext()) {
+				List<List<RecommendationEngine.Recommendation>> results = recommendAll(engine, chunk, pool);
+				for (int i = 0; i < chunk.size(); i++) {
+					sink.accept(chunk.get(i), results.get(i));
+				}
+				processed += chunk.size();
+				matches += countMatches(results);
+				chunk.clear();
+			}
+		}
+		return new BatchStats(processed, matches, System.nanoTime() - start, pool.getParallelism());
+	}
+
+	static List<List<RecommendationEngine.Recommendation>> recommendAll(RecommendationEngine engine,
+			List<RecommendationEngine.Input> inputs, ForkJoinPool pool) {
+		RecommendationEngine.Input[] batch = inputs.toArray(new RecommendationEngine.Input[0]);
+		@SuppressWarnings("unchecked")
+		List<RecommendationEngine.Recommendation>[] results = (List<RecommendationEngine.Recommendation>[]) new List<?>[batch.length];
+		if (batch.length > 0) {
+			// Aim for a few tasks per worker so uneven query costs still balance out.
+			int grain = Math.max(1, batch.length / (pool.getParallelism() * 8));
+			pool.invoke(new BatchTask(engine, batch, results, 0, batch.length, grain));
+		}
+		return Collections.unmodifiableList(Arrays.asList(results));
+	}
+
+	private static long countMatches(List<List<RecommendationEngine.Recommendation>> results) {
+		long matches = 0;
+		for (List<RecommendationEngine.Recommendation> result : results) {
+			matches += result.size();
+		}
+		return matches;
+	}
+
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+	private static final class BatchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		// ForkJoinTask is Serializable, but these tasks never are.
+		private final transient RecommendationEngine engine;
+		private final transient RecommendationEngine.Input[] inputs;
+		private final transient List<RecommendationEngine.Recommendation>[] results;
+		private final int from;
+		private final int to;
+		private final int grain;
+
+		BatchTask(RecommendationEngine engine, RecommendationEngine.Input[] inputs,
+				List<RecommendationEngine.Recommendation>[] results, int from, int to, int grain) {
+			this.engine = engine;
+			this.inputs = inputs;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= grain) {
+				for (int i = from; i < to; i++) {
+					results[i] = engine.recommend(inputs[i]);
+				}
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new BatchTask(engine, inputs, results, from, mid, grain),
+					new BatchTask(engine, inputs, results, mid, to, grain));
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package controllers;
+
+import java.util.List;
+
+/**
+ * Result of {@link RecommendationEngine#explain}: the recommendations plus
+ * how many programs entered and left each stage of the query, and how long
+ * each stage took. Predicate stages run in the order the engine applies them
+ * (salary, previous GPA, interest), so a stage's {@code eliminated()} is
+ * measured against what the earlier stages let through.
+ */
+public record Explanation(List<RecommendationEngine.Recommendation> results, List<Stage> stages) {
+
+	public Explanation {
+		results = List.copyOf(results);
+		stages = List.copyOf(stages);
+	}
+
+	public record Stage(String name, int in, int out, long nanos) {
+
+		public int eliminated() {
+			return in - out;
+		}
+
+		/** Fraction of this stage's input that passed it. */
+		public double selectivity() {
+			return in == 0 ? 0.0 : (double) out / in;
+		}
+	}
+
+	public long totalNanos() {
+		long total = 0;
+		for (Stage stage : stages) {
+			total += stage.nanos();
+		}
+		return total;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder(String.format("%-12s %10s %10s %11s %10s%n", "stage", "in", "out",
+				"selectivity", "micros"));
+		for (Stage stage : stages) {
+			text.append(String.format("%-12s %10d %10d %11.4f %10.2f%n", stage.name(), stage.in(), stage.out(),
+					stage.selectivity(), stage.nanos() / 1_000.0));
+		}
+		return text.append(String.format("%d results in %.2fus", results.size(), totalNanos() / 1_000.0)).toString();
+	}
+}
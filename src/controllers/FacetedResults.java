@@ -0,0 +1,14 @@
+package controllers;
+
+import java.util.List;
+
+/**
+ * Recommendations together with their per-category counts, both produced by
+ * the same filtering pass (see {@link RecommendationEngine#recommendWithFacets}).
+ */
+public record FacetedResults(List<RecommendationEngine.Recommendation> results, CategoryFacets facets) {
+
+	public FacetedResults {
+		results = List.copyOf(results);
+	}
+}
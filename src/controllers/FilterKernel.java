@@ -0,0 +1,38 @@
+package controllers;
+
+/**
+ * Applies the GPA and interest bounds to the salary-qualified suffix of a
+ * {@link ProgramIndex}, writing matching sorted positions into a caller-owned
+ * buffer so the buffer can be reused across queries.
+ */
+interface FilterKernel {
+
+	/**
+	 * Writes every sorted position {@code i >= from} with
+	 * {@code previousGpas[i] <= previousGPA} and {@code interestRanks[i] <= interestRank}
+	 * into {@code out}, in ascending order.
+	 *
+	 * @return the number of positions written
+	 */
+	int filter(ProgramIndex index, int from, double previousGPA, int interestRank, int[] out);
+
+	/**
+	 * The vectorized kernel when {@code jdk.incubator.vector} is in the boot
+	 * layer (run with {@code --add-modules jdk.incubator.vector}), otherwise the
+	 * scalar one. {@code -Ddegree.recommend.scalarKernel=true} forces scalar.
+	 */
+	static FilterKernel preferred() {
+		if (!Boolean.getBoolean("degree.recommend.scalarKernel")
+				&& ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			try {
+				// Loaded reflectively so this class never links against the incubator module when it is absent.
+				Class<?> vectorKernel = Class.forName("controllers.VectorFilterKernel");
+				return (FilterKernel) vectorKernel.getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | LinkageError | UnsupportedOperationException ex) {
+				System.getLogger(FilterKernel.class.getName()).log(System.Logger.Level.WARNING,
+						"Vector filter kernel unavailable, using scalar kernel", ex);
+			}
+		}
+		return ScalarFilterKernel.INSTANCE;
+	}
+}
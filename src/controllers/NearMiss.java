@@ -0,0 +1,37 @@
+package controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Program;
+
+/**
+ * A program the student does not qualify for, with how far off they are on
+ * each requirement and the combined {@link NearMissWeights} distance.
+ */
+public record NearMiss(Program program, double distance, double salaryShortfall, double gpaDeficit,
+		int interestGap) {
+
+	static NearMiss of(Program program, RecommendationEngine.Input input, NearMissWeights weights) {
+		double salaryShortfall = Math.max(0.0, input.minAcceptableSalary - program.getMinIndustrySalary());
+		double gpaDeficit = Math.max(0.0, program.getMinRequiredPreviousGPA() - input.previousGPA);
+		int interestGap = Math.max(0, program.getAnalyticalInterestRequired().rank() - input.studentInterest.rank());
+		return new NearMiss(program, weights.distance(salaryShortfall, gpaDeficit, interestGap), salaryShortfall,
+				gpaDeficit, interestGap);
+	}
+
+	/** What would have to change for the student to qualify, e.g. "GPA +0.30, salary SAR 500 lower". */
+	public String describe() {
+		List<String> parts = new ArrayList<>(3);
+		if (gpaDeficit > 0.0) {
+			parts.add(String.format("GPA +%.2f", gpaDeficit));
+		}
+		if (salaryShortfall > 0.0) {
+			parts.add(String.format("salary SAR %.0f lower", salaryShortfall));
+		}
+		if (interestGap > 0) {
+			parts.add("interest +" + interestGap + (interestGap == 1 ? " level" : " levels"));
+		}
+		return String.join(", ", parts);
+	}
+}
@@ -0,0 +1,47 @@
+package controllers;
+
+/**
+ * Weights of the near-miss distance: how much each unit by which a program
+ * misses the student's input counts. The distance is the weighted sum of the
+ * salary shortfall (per SAR 1,000 below the student's minimum), the GPA
+ * deficit (per GPA point above the student's) and the interest gap (per
+ * level above the student's). Defaults treat SAR 1,000, half a GPA point and
+ * one interest level as equally far; override them with
+ * {@code degree.recommend.nearMiss.salaryWeight}, {@code .gpaWeight} and
+ * {@code .interestWeight}.
+ */
+public record NearMissWeights(double perThousandSalary, double perGpaPoint, double perInterestLevel) {
+
+	public static final NearMissWeights DEFAULT = new NearMissWeights(1.0, 2.0, 1.0);
+
+	public NearMissWeights {
+		if (!(perThousandSalary >= 0.0) || !(perGpaPoint >= 0.0) || !(perInterestLevel >= 0.0)
+				|| !Double.isFinite(perThousandSalary + perGpaPoint + perInterestLevel)) {
+			throw new IllegalArgumentException("Near-miss weights must be finite and not negative.");
+		}
+	}
+
+	public static NearMissWeights fromSystemProperties() {
+		return new NearMissWeights(
+				doubleProperty("degree.recommend.nearMiss.salaryWeight", DEFAULT.perThousandSalary),
+				doubleProperty("degree.recommend.nearMiss.gpaWeight", DEFAULT.perGpaPoint),
+				doubleProperty("degree.recommend.nearMiss.interestWeight", DEFAULT.perInterestLevel));
+	}
+
+	double distance(double salaryShortfall, double gpaDeficit, int interestGap) {
+		return perThousandSalary * salaryShortfall / 1_000.0 + perGpaPoint * gpaDeficit
+				+ perInterestLevel * interestGap;
+	}
+
+	private static double doubleProperty(String name, double fallback) {
+		String value = System.getProperty(name);
+		if (value == null) {
+			return fallback;
+		}
+		try {
+			return Double.parseDouble(value.trim());
+		} catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("Invalid number for " + name + ": " + value, ex);
+		}
+	}
+}
@@ -0,0 +1,248 @@
+package controllers;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.Program;
+import model.ProgramCatalog;
+
+/**
+ * Catalog programs ordered by minimum industry salary. The salary bound of a
+ * query becomes a binary search for the first qualifying position, so only the
+ * suffix from that point has to be checked against the GPA and interest bounds.
+ * {@link #catalogPosition(int)} maps a sorted position back to the program's
+ * position in the original catalog list.
+ * <p>
+ * The filter inputs are held as parallel primitive columns in that same order,
+ * so a scan touches contiguous arrays instead of chasing {@link Program}
+ * references across the heap.
+ * <p>
+ * Category names are dictionary-encoded: {@link #categoryCodes} maps every
+ * catalog position to a small int indexing {@link #categoryNames}, so
+ * per-category counts are a primitive array increment per match.
+ */
+final class ProgramIndex {
+	private final Program[] programs;
+	private final int[] order;
+
+	// Columns, indexed by sorted position.
+	final double[] salaries;
+	final double[] previousGpas;
+	final byte[] interestRanks;
+	final double[] postDegreeGpas;
+
+	// Distinct category names in name order, and each catalog position's code into them.
+	final String[] categoryNames;
+	final int[] categoryCodes;
+	private final Map<String, Integer> codesByCategory;
+
+	// (program id << 32 | catalog position), sorted; built on the first id lookup.
+	private volatile long[] idPositions;
+
+	private ProgramIndex(Program[] programs, int[] order, double[] salaries) {
+		this.programs = programs;
+		this.order = order;
+		this.salaries = salaries;
+		this.previousGpas = new double[order.length];
+		this.interestRanks = new byte[order.length];
+		this.postDegreeGpas = new double[order.length];
+		for (int i = 0; i < order.length; i++) {
+			Program p = programs[order[i]];
+			previousGpas[i] = p.getMinRequiredPreviousGPA();
+			interestRanks[i] = (byte) p.getAnalyticalInterestRequired().rank();
+			postDegreeGpas[i] = p.getRequiredAcceptableGPAAfterDegree();
+		}
+
+		this.codesByCategory = new HashMap<>();
+		for (Program p : programs) {
+			codesByCategory.putIfAbsent(p.getCategory(), 0);
+		}
+		this.categoryNames = codesByCategory.keySet().toArray(new String[0]);
+		Arrays.sort(categoryNames, (a, b) -> a == null ? (b == null ? 0 : -1)
+				: b == null ? 1 : ProgramCatalog.compareNames(a, b));
+		for (int code = 0; code < categoryNames.length; code++) {
+			codesByCategory.put(categoryNames[code], code);
+		}
+		this.categoryCodes = new int[programs.length];
+		for (int i = 0; i < programs.length; i++) {
+			categoryCodes[i] = codesByCategory.get(programs[i].getCategory());
+		}
+	}
+
+	static ProgramIndex build(List<Program> catalog) {
+		Program[] programs = catalog.toArray(new Program[0]);
+		double[] keys = new double[programs.length];
+		int[] candidates = new int[programs.length];
+		int size = 0;
+		for (int i = 0; i < programs.length; i++) {
+			double salary = programs[i].getMinIndustrySalary();
+			// A NaN salary never satisfies "salary >= bound", so it is left out of the index entirely.
+			if (!Double.isNaN(salary)) {
+				keys[i] = salary;
+				candidates[size++] = i;
+			}
+		}
+		int[] order = new int[size];
+		System.arraycopy(candidates, 0, order, 0, size);
+		sortByKey(order, keys);
+
+		double[] salaries = new double[size];
+		for (int i = 0; i < size; i++) {
+			salaries[i] = keys[order[i]];
+		}
+		return new ProgramIndex(programs, order, salaries);
+	}
+
+	int catalogSize() {
+		return programs.length;
+	}
+
+	int size() {
+		return order.length;
+	}
+
+	/**
+	 * First sorted position whose salary is {@code >= minSalary}, or
+	 * {@link #size()} when none qualifies.
+	 */
+	int lowerBound(double minSalary) {
+		if (Double.isNaN(minSalary)) {
+			return order.length;
+		}
+		int low = 0;
+		int high = order.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (salaries[mid] < minSalary) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	Program programAt(int sortedPosition) {
+		return programs[order[sortedPosition]];
+	}
+
+	int catalogPosition(int sortedPosition) {
+		return order[sortedPosition];
+	}
+
+	Program catalogProgram(int catalogPosition) {
+		return programs[catalogPosition];
+	}
+
+	/**
+	 * Dictionary code of {@code category}, or {@code -1} if no program in this
+	 * index's catalog has it.
+	 */
+	int categoryCode(String category) {
+		Integer code = codesByCategory.get(category);
+		return code == null ? -1 : code;
+	}
+
+	/**
+	 * Catalog position of the program with {@code programId}, or {@code -1} if
+	 * it is not in this index's catalog.
+	 */
+	int catalogPositionOf(int programId) {
+		long[] keys = idPositions;
+		if (keys == null) {
+			keys = new long[programs.length];
+			for (int i = 0; i < programs.length; i++) {
+				keys[i] = (long) programs[i].getId() << 32 | i;
+			}
+			Arrays.sort(keys);
+			idPositions = keys;
+		}
+		int at = Arrays.binarySearch(keys, (long) programId << 32);
+		if (at < 0) {
+			at = -at - 1;
+		}
+		return at < keys.length && (int) (keys[at] >>> 32) == programId ? (int) keys[at] : -1;
+	}
+
+	static final int RADIX_BITS = 11;
+	static final int RADIX = 1 << RADIX_BITS;
+
+	/**
+	 * Sorts the first {@code count} positions (all in {@code [0, bound)}) in
+	 * place without allocating. Small inputs use {@link Arrays#sort}, which only
+	 * allocates for run merging on larger arrays; larger ones use an LSD radix
+	 * sort through {@code buffer} (at least {@code count} long) and
+	 * {@code counts} ({@link #RADIX} long).
+	 */
+	static void sortPositions(int[] positions, int count, int bound, int[] buffer, int[] counts) {
+		if (count < 4096) {
+			Arrays.sort(positions, 0, count);
+			return;
+		}
+		int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, bound - 1));
+		int[] from = positions;
+		int[] to = buffer;
+		for (int shift = 0; shift < bits; shift += RADIX_BITS) {
+			Arrays.fill(counts, 0);
+			for (int i = 0; i < count; i++) {
+				counts[(from[i] >>> shift) & (RADIX - 1)]++;
+			}
+			int sum = 0;
+			for (int digit = 0; digit < RADIX; digit++) {
+				int c = counts[digit];
+				counts[digit] = sum;
+				sum += c;
+			}
+			for (int i = 0; i < count; i++) {
+				int value = from[i];
+				to[counts[(value >>> shift) & (RADIX - 1)]++] = value;
+			}
+			int[] swap = from;
+			from = to;
+			to = swap;
+		}
+		if (from != positions) {
+			System.arraycopy(from, 0, positions, 0, count);
+		}
+	}
+
+	// Stable merge sort of indices by their key, avoiding boxed comparators on large catalogs.
+	private static void sortByKey(int[] indices, double[] keys) {
+		int[] buffer = new int[indices.length];
+		mergeSort(indices, buffer, 0, indices.length, keys);
+	}
+
+	private static void mergeSort(int[] a, int[] buffer, int from, int to, double[] keys) {
+		if (to - from < 16) {
+			for (int i = from + 1; i < to; i++) {
+				int value = a[i];
+				double key = keys[value];
+				int j = i - 1;
+				while (j >= from && Double.compare(keys[a[j]], key) > 0) {
+					a[j + 1] = a[j];
+					j--;
+				}
+				a[j + 1] = value;
+			}
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		mergeSort(a, buffer, from, mid, keys);
+		mergeSort(a, buffer, mid, to, keys);
+		if (Double.compare(keys[a[mid - 1]], keys[a[mid]]) <= 0) {
+			return;
+		}
+		System.arraycopy(a, from, buffer, from, to - from);
+		int left = from;
+		int right = mid;
+		for (int k = from; k < to; k++) {
+			if (right >= to || (left < mid && Double.compare(keys[buffer[left]], keys[buffer[right]]) <= 0)) {
+				a[k] = buffer[left++];
+			} else {
+				a[k] = buffer[right++];
+			}
+		}
+	}
+}
@@ -0,0 +1,288 @@
+package controllers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import model.Program;
+import model.ProgramRepository;
+
+/**
+ * Dynamic spatial index over program requirement tuples (minimum salary,
+ * required previous GPA, analytical interest rank) answering the
+ * recommendation predicate as a dominance query: salary {@code >= x}, GPA
+ * requirement {@code <= y} and interest rank {@code <= z}.
+ * <p>
+ * Programs live in static {@link RequirementTree} k-d trees kept with the
+ * logarithmic method: new programs collect in a small buffer that is scanned
+ * directly, and a full buffer is merged with the trees of the levels below the
+ * first empty one into a single tree on that level, so each program is
+ * rebuilt O(log n) times over its lifetime. Deletes only mark the program as
+ * removed; merges drop marked programs, and once they make up half the
+ * indexed programs everything is rebuilt into one tree. A query visits
+ * O(log n) trees, each pruned by its bounding boxes.
+ * <p>
+ * Not thread-safe; confine an instance to one thread or guard it externally.
+ */
+public final class ProgramRangeIndex {
+	private static final int BUFFER_SIZE = 64;
+
+	// Every indexed program by slot; ids in the trees and the buffer are slots.
+	private Program[] slots = new Program[BUFFER_SIZE];
+	private int slotCount;
+	private int[] freeSlots = new int[0];
+	private int freeCount;
+	private final Map<Integer, Integer> slotsById = new HashMap<>();
+	// Slots still held by a tree whose program has been deleted.
+	private final BitSet removed = new BitSet();
+	private int removedCount;
+
+	private final int[] buffer = new int[BUFFER_SIZE];
+	private int bufferSize;
+	// levels[i] is null or a tree over roughly BUFFER_SIZE << i slots.
+	private RequirementTree[] levels = new RequirementTree[0];
+	private int[][] levelSlots = new int[0][];
+
+	public ProgramRangeIndex() {
+	}
+
+	/**
+	 * Bulk-builds an index over {@code programs} as a single tree, which is
+	 * cheaper than inserting them one by one.
+	 */
+	public static ProgramRangeIndex build(Collection<Program> programs) {
+		ProgramRangeIndex index = new ProgramRangeIndex();
+		int[] all = new int[programs.size()];
+		int count = 0;
+		for (Program program : programs) {
+			index.requireAbsent(program);
+			all[count++] = index.allocate(program);
+		}
+		index.placeAll(all);
+		return index;
+	}
+
+	/**
+	 * Bulk-builds an index over the repository's current catalog snapshot.
+	 * Later catalog writes are not tracked; apply them with {@link #insert},
+	 * {@link #delete} and {@link #update}.
+	 */
+	public static ProgramRangeIndex build(ProgramRepository repository) {
+		return build(repository.getPrograms());
+	}
+
+	public int size() {
+		return slotsById.size();
+	}
+
+	public boolean contains(int programId) {
+		return slotsById.containsKey(programId);
+	}
+
+	/**
+	 * Adds {@code program}. Throws {@link IllegalArgumentException} if a program
+	 * with the same id is already indexed.
+	 */
+	public void insert(Program program) {
+		requireAbsent(Objects.requireNonNull(program, "program"));
+		buffer[bufferSize++] = allocate(program);
+		if (bufferSize == BUFFER_SIZE) {
+			flushBuffer();
+		}
+	}
+
+	/**
+	 * Removes the program with {@code programId}; returns {@code false} if it was
+	 * not indexed.
+	 */
+	public boolean delete(int programId) {
+		Integer slot = slotsById.remove(programId);
+		if (slot == null) {
+			return false;
+		}
+		for (int i = 0; i < bufferSize; i++) {
+			if (buffer[i] == slot) {
+				buffer[i] = buffer[--bufferSize];
+				release(slot);
+				return true;
+			}
+		}
+		removed.set(slot);
+		removedCount++;
+		// Deleted programs now outnumber live ones in the trees.
+		if (removedCount > size()) {
+			rebuild();
+		}
+		return true;
+	}
+
+	/**
+	 * Replaces the indexed program with {@code program.getId()} by
+	 * {@code program}, or adds it if there was none.
+	 */
+	public void update(Program program) {
+		delete(Objects.requireNonNull(program, "program").getId());
+		insert(program);
+	}
+
+	/**
+	 * Passes every program with salary {@code >= minSalary}, GPA requirement
+	 * {@code <= maxGpa} and interest rank {@code <= maxInterestRank} to
+	 * {@code action}, in no particular order.
+	 */
+	public void forEachMatch(double minSalary, double maxGpa, int maxInterestRank, Consumer<Program> action) {
+		Objects.requireNonNull(action, "action");
+		for (RequirementTree tree : levels) {
+			if (tree != null) {
+				tree.dominated(minSalary, maxGpa, maxInterestRank, slot -> {
+					if (removedCount == 0 || !removed.get(slot)) {
+						action.accept(slots[slot]);
+					}
+				});
+			}
+		}
+		for (int i = 0; i < bufferSize; i++) {
+			Program p = slots[buffer[i]];
+			if (p.getMinIndustrySalary() >= minSalary && p.getMinRequiredPreviousGPA() <= maxGpa
+					&& p.getAnalyticalInterestRequired().rank() <= maxInterestRank) {
+				action.accept(p);
+			}
+		}
+	}
+
+	public List<Program> query(double minSalary, double maxGpa, int maxInterestRank) {
+		List<Program> matches = new ArrayList<>();
+		forEachMatch(minSalary, maxGpa, maxInterestRank, matches::add);
+		return matches;
+	}
+
+	/**
+	 * The programs {@code input} qualifies for, the same set
+	 * {@link RecommendationEngine#recommend} returns but in no particular order.
+	 */
+	public List<Program> query(RecommendationEngine.Input input) {
+		return query(input.minAcceptableSalary, input.previousGPA, input.studentInterest.rank());
+	}
+
+	private void requireAbsent(Program program) {
+		if (slotsById.containsKey(program.getId())) {
+			throw new IllegalArgumentException("Program " + program.getId() + " is already indexed.");
+		}
+	}
+
+	private int allocate(Program program) {
+		int slot;
+		if (freeCount > 0) {
+			slot = freeSlots[--freeCount];
+		} else {
+			if (slotCount == slots.length) {
+				slots = Arrays.copyOf(slots, slots.length * 2);
+			}
+			slot = slotCount++;
+		}
+		slots[slot] = program;
+		slotsById.put(program.getId(), slot);
+		return slot;
+	}
+
+	private void release(int slot) {
+		slots[slot] = null;
+		if (freeCount == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeCount * 2));
+		}
+		freeSlots[freeCount++] = slot;
+	}
+
+	// Binary-counter carry: the buffer and every full level below the first empty one become that level.
+	private void flushBuffer() {
+		int level = 0;
+		int count = bufferSize;
+		while (level < levels.length && levels[level] != null) {
+			count += levelSlots[level].length;
+			level++;
+		}
+		int[] merged = new int[count];
+		System.arraycopy(buffer, 0, merged, 0, bufferSize);
+		int at = bufferSize;
+		for (int i = 0; i < level; i++) {
+			System.arraycopy(levelSlots[i], 0, merged, at, levelSlots[i].length);
+			at += levelSlots[i].length;
+			levels[i] = null;
+			levelSlots[i] = null;
+		}
+		bufferSize = 0;
+		setLevel(level, purge(merged));
+	}
+
+	private void rebuild() {
+		int count = bufferSize;
+		for (int[] held : levelSlots) {
+			count += held == null ? 0 : held.length;
+		}
+		int[] all = new int[count];
+		System.arraycopy(buffer, 0, all, 0, bufferSize);
+		int at = bufferSize;
+		for (int[] held : levelSlots) {
+			if (held != null) {
+				System.arraycopy(held, 0, all, at, held.length);
+				at += held.length;
+			}
+		}
+		bufferSize = 0;
+		Arrays.fill(levels, null);
+		Arrays.fill(levelSlots, null);
+		placeAll(purge(all));
+	}
+
+	// Puts every slot into one tree, on the lowest level whose nominal size holds them.
+	private void placeAll(int[] held) {
+		int level = 0;
+		while ((long) BUFFER_SIZE << level < held.length) {
+			level++;
+		}
+		setLevel(level, held);
+	}
+
+	// Drops slots whose program was deleted, returning them to the free list.
+	private int[] purge(int[] held) {
+		int kept = 0;
+		for (int i = 0; i < held.length; i++) {
+			int slot = held[i];
+			if (removed.get(slot)) {
+				removed.clear(slot);
+				removedCount--;
+				release(slot);
+			} else {
+				held[kept++] = slot;
+			}
+		}
+		return kept == held.length ? held : Arrays.copyOf(held, kept);
+	}
+
+	private void setLevel(int level, int[] held) {
+		if (level >= levels.length) {
+			levels = Arrays.copyOf(levels, level + 1);
+			levelSlots = Arrays.copyOf(levelSlots, level + 1);
+		}
+		if (held.length == 0) {
+			return;
+		}
+		double[] salaries = new double[held.length];
+		double[] gpas = new double[held.length];
+		byte[] ranks = new byte[held.length];
+		for (int i = 0; i < held.length; i++) {
+			Program p = slots[held[i]];
+			salaries[i] = p.getMinIndustrySalary();
+			gpas[i] = p.getMinRequiredPreviousGPA();
+			ranks[i] = (byte) p.getAnalyticalInterestRequired().rank();
+		}
+		levels[level] = RequirementTree.of(salaries, gpas, ranks, held, held.length);
+		levelSlots[level] = held;
+	}
+}
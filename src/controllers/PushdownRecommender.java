@@ -0,0 +1,46 @@
+package controllers;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import model.ProgramRepository;
+
+/**
+ * Query-backed recommendation path: the salary, previous-GPA and interest
+ * bounds run inside SQLite and only matching rows come back. Returns the same
+ * programs, in the same order and with the same study hours, as
+ * {@link RecommendationEngine#recommend} over {@link ProgramRepository#getPrograms()},
+ * without holding the catalog in memory.
+ */
+public class PushdownRecommender {
+
+	private final ProgramRepository repository;
+
+	public PushdownRecommender(ProgramRepository repository) {
+		this.repository = Objects.requireNonNull(repository, "repository");
+	}
+
+	public List<RecommendationEngine.Recommendation> recommend(RecommendationEngine.Input input) {
+		List<RecommendationEngine.Recommendation> results = new ArrayList<>();
+		recommend(input, results::add);
+		return results;
+	}
+
+	/**
+	 * Streams each recommendation to {@code sink} as its row is read.
+	 */
+	public void recommend(RecommendationEngine.Input input, Consumer<RecommendationEngine.Recommendation> sink) {
+		Objects.requireNonNull(input, "input");
+		Objects.requireNonNull(sink, "sink");
+		try {
+			repository.streamEligiblePrograms(input.minAcceptableSalary, input.previousGPA, input.studentInterest,
+					p -> sink.accept(new RecommendationEngine.Recommendation(p,
+							RecommendationEngine.extraStudyHours(p, input.previousGPA))));
+		} catch (SQLException ex) {
+			throw new IllegalStateException("Unable to load recommendations", ex);
+		}
+	}
+}
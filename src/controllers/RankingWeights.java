@@ -0,0 +1,26 @@
+package controllers;
+
+/**
+ * Weights for ranking eligible programs. A program scores higher the more its
+ * salary exceeds the student's minimum, the wider the student's GPA margin over
+ * the program's requirement, and the fewer extra study hours it needs.
+ */
+public record RankingWeights(double salaryHeadroom, double gpaMargin, double extraStudyHours) {
+
+	public static final RankingWeights DEFAULT = new RankingWeights(1.0, 1.0, 1.0);
+
+	public RankingWeights {
+		if (!Double.isFinite(salaryHeadroom) || !Double.isFinite(gpaMargin) || !Double.isFinite(extraStudyHours)) {
+			throw new IllegalArgumentException("Ranking weights must be finite numbers.");
+		}
+	}
+
+	double score(RecommendationEngine.Input input, double salary, double requiredGpa, double postDegreeGpa) {
+		// Headroom is relative to the student's minimum and log-damped so very high salaries do not dominate.
+		double headroom = Math.log1p(Math.max(0.0, salary - input.minAcceptableSalary)
+				/ Math.max(1.0, input.minAcceptableSalary));
+		double margin = input.previousGPA - requiredGpa;
+		double hours = Math.max(0.0, postDegreeGpa - input.previousGPA);
+		return salaryHeadroom * headroom + gpaMargin * margin - extraStudyHours * hours;
+	}
+}
@@ -0,0 +1,195 @@
+package controllers;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import model.Program;
+
+/**
+ * Bounded LRU cache of recommendation results keyed on the normalized student
+ * input. Entries also expire after a fixed time to live, and the whole cache is
+ * dropped whenever the catalog version it was filled from changes.
+ * <p>
+ * An entry can also hold the per-category counts of its results, so plain and
+ * faceted lookups for the same input share one entry (see
+ * {@link #getWithFacets}).
+ */
+public class RecommendationCache {
+
+	private record Key(double salary, long gpaHundredths, Program.InterestLevel interest) {
+	}
+
+	// facets is null until a faceted lookup has filled it in.
+	private record Entry(List<RecommendationEngine.Recommendation> results, CategoryFacets facets, long createdNanos) {
+	}
+
+	public record Stats(long hits, long misses, long evictions, long expirations, long invalidations, int size,
+			int capacity) {
+		public double hitRate() {
+			long lookups = hits + misses;
+			return lookups == 0 ? 0.0 : (double) hits / lookups;
+		}
+	}
+
+	private final int capacity;
+	private final long ttlNanos;
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long catalogVersion = Long.MIN_VALUE;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder expirations = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	public RecommendationCache(int capacity, long ttl, TimeUnit unit) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Cache capacity must not be negative.");
+		}
+		this.capacity = capacity;
+		this.ttlNanos = unit.toNanos(ttl);
+	}
+
+	static RecommendationCache fromSystemProperties() {
+		return new RecommendationCache(Integer.getInteger("degree.recommend.cache.size", 1024),
+				Long.getLong("degree.recommend.cache.ttlMs", 600_000L), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Normalizes the input the way the cache keys it: GPA rounded to two
+	 * decimals, salary unchanged. Results are always computed from this form so
+	 * every input sharing a key gets the same answer.
+	 */
+	public static RecommendationEngine.Input normalize(RecommendationEngine.Input input) {
+		double gpa = Math.round(input.previousGPA * 100.0) / 100.0;
+		double salary = input.minAcceptableSalary == 0.0 ? 0.0 : input.minAcceptableSalary;
+		if (gpa == input.previousGPA && salary == input.minAcceptableSalary) {
+			return input;
+		}
+		return new RecommendationEngine.Input(salary, gpa, input.studentInterest);
+	}
+
+	/**
+	 * Returns the cached result for {@code input} against catalog
+	 * {@code version}, computing and storing it on a miss. The computation runs
+	 * outside the cache lock.
+	 */
+	public List<RecommendationEngine.Recommendation> get(long version, RecommendationEngine.Input input,
+			Function<RecommendationEngine.Input, List<RecommendationEngine.Recommendation>> compute) {
+		return lookup(version, input, false,
+				normalized -> new Entry(List.copyOf(compute.apply(normalized)), null, 0L)).results();
+	}
+
+	/**
+	 * Like {@link #get}, but also returns the per-category counts. A miss
+	 * stores the counts {@code compute} produced alongside the results; a hit
+	 * on an entry stored by {@link #get} groups its cached results instead of
+	 * running {@code compute}, and keeps the counts for later lookups.
+	 */
+	public FacetedResults getWithFacets(long version, RecommendationEngine.Input input,
+			Function<RecommendationEngine.Input, FacetedResults> compute) {
+		Entry entry = lookup(version, input, true, normalized -> {
+			FacetedResults computed = compute.apply(normalized);
+			return new Entry(computed.results(), computed.facets(), 0L);
+		});
+		return new FacetedResults(entry.results(), entry.facets());
+	}
+
+	private Entry lookup(long version, RecommendationEngine.Input input, boolean withFacets,
+			Function<RecommendationEngine.Input, Entry> compute) {
+		RecommendationEngine.Input normalized = normalize(input);
+		if (capacity == 0 || Double.isNaN(normalized.minAcceptableSalary) || Double.isNaN(normalized.previousGPA)
+				|| normalized.studentInterest == null) {
+			misses.increment();
+			return compute.apply(normalized);
+		}
+		Key key = new Key(normalized.minAcceptableSalary, Math.round(normalized.previousGPA * 100.0),
+				normalized.studentInterest);
+		long now = System.nanoTime();
+		Entry cached = null;
+		synchronized (entries) {
+			// A caller still on an older catalog must not be served entries built from a newer one;
+			// it falls through to compute, and the store below is skipped for the same reason.
+			Entry entry = syncVersion(version) ? entries.get(key) : null;
+			if (entry != null) {
+				if (now - entry.createdNanos() <= ttlNanos) {
+					hits.increment();
+					if (!withFacets || entry.facets() != null) {
+						return entry;
+					}
+					cached = entry;
+				} else {
+					entries.remove(key);
+					expirations.increment();
+				}
+			}
+		}
+		if (cached != null) {
+			// Grouping the cached results is cheaper than another filtering pass; done outside the lock.
+			Entry upgraded = new Entry(cached.results(), CategoryFacets.of(cached.results()), cached.createdNanos());
+			synchronized (entries) {
+				entries.replace(key, cached, upgraded);
+			}
+			return upgraded;
+		}
+		misses.increment();
+		Entry computed = compute.apply(normalized);
+		Entry entry = new Entry(List.copyOf(computed.results()), computed.facets(), now);
+		synchronized (entries) {
+			// Do not store a result computed against a catalog that was replaced meanwhile.
+			if (syncVersion(version)) {
+				entries.put(key, entry);
+				evictOverflow();
+			}
+		}
+		return entry;
+	}
+
+	public void invalidateAll() {
+		synchronized (entries) {
+			if (!entries.isEmpty()) {
+				invalidations.increment();
+				entries.clear();
+			}
+		}
+	}
+
+	public Stats stats() {
+		int size;
+		synchronized (entries) {
+			size = entries.size();
+		}
+		return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), invalidations.sum(), size,
+				capacity);
+	}
+
+	// Caller holds the lock. Returns false if version is older than what the cache already holds.
+	private boolean syncVersion(long version) {
+		if (version == catalogVersion) {
+			return true;
+		}
+		if (version < catalogVersion) {
+			return false;
+		}
+		if (!entries.isEmpty()) {
+			invalidations.increment();
+			entries.clear();
+		}
+		catalogVersion = version;
+		return true;
+	}
+
+	private void evictOverflow() {
+		Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+		while (entries.size() > capacity && it.hasNext()) {
+			it.next();
+			it.remove();
+			evictions.increment();
+		}
+	}
+}
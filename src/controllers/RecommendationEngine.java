@@ -2,15 +2,145 @@ package controllers;
 
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import model.Program;
+import model.ProgramCatalog;
+import model.ProgramChange;
 
 public class RecommendationEngine {
+ // Chosen once per JVM: the SIMD kernel when jdk.incubator.vector is available, else scalar.
+ private static final FilterKernel KERNEL = FilterKernel.preferred();
+ // Match and sort buffers checked out per query and returned afterwards; they grow to the largest catalog seen.
+ // A pool rather than a ThreadLocal, so queries on short-lived (e.g. virtual) threads still reuse them. At most
+ // degree.recommend.scratchPool idle sets are kept in fixed slots, so checking one out or back in allocates
+ // nothing; queries finding every slot empty run on fresh buffers, which are dropped if every slot is full.
+ private static final AtomicReferenceArray<Scratch> SCRATCH = new AtomicReferenceArray<>(Math.max(1,
+         Integer.getInteger("degree.recommend.scratchPool", 2 * Runtime.getRuntime().availableProcessors())));
+ // Overlay size at which withChange stops patching and rebuilds the index from the catalog.
+ private static final int DELTA_LIMIT = Math.max(0, Integer.getInteger("degree.recommend.deltaLimit", 512));
+
  private final List<Program> programs;
+ private final ProgramIndex index;
+ private final Mode mode;
+ private final AnswerTable answerTable;
+ private final CatalogDelta delta;
+ // Built on the first near-miss query and shared with every engine layered over the same index.
+ private final AtomicReference<RequirementTree> requirementTree;
+
+ public enum Mode {
+     // Binary search on salary, then scan the qualifying suffix.
+     INDEXED,
+     // Additionally precompute one eligibility bitset per (GPA step, interest level);
+     // costs 164 bits per program but turns on-grid queries into bitset reads.
+     ANSWER_TABLE
+ }
 
+ // Builds the salary index once; reuse the engine for every query against the same catalog.
  public RecommendationEngine(List<Program> programs){
+     this(programs, Mode.INDEXED);
+ }
+
+ public RecommendationEngine(List<Program> programs, Mode mode){
+     this.programs = programs;
+     this.mode = Objects.requireNonNull(mode, "mode");
+     this.index = ProgramIndex.build(programs);
+     this.answerTable = mode == Mode.ANSWER_TABLE ? AnswerTable.build(index) : null;
+     this.delta = CatalogDelta.EMPTY;
+     this.requirementTree = new AtomicReference<>();
+ }
+
+ // Shares base's index (and answer table) and layers delta over it.
+ private RecommendationEngine(List<Program> programs, RecommendationEngine base, CatalogDelta delta){
      this.programs = programs;
+     this.mode = base.mode;
+     this.index = base.index;
+     this.answerTable = base.answerTable;
+     this.delta = delta;
+     this.requirementTree = base.requirementTree;
+ }
+
+ /**
+  * Returns an engine for {@code programs}, the catalog that results from
+  * applying {@code change} to this engine's catalog. The sorted index is
+  * shared and the change is recorded in a small overlay, so this costs
+  * O(log n) plus the overlay size; once the overlay reaches
+  * {@code degree.recommend.deltaLimit} entries the index is rebuilt instead.
+  * This engine is left untouched. Returns {@code null} if the change does not
+  * fit this engine's catalog and a full rebuild is needed. Both catalogs must
+  * be in name order, as {@link model.ProgramRepository} publishes them.
+  */
+ RecommendationEngine withChange(ProgramChange change, List<Program> programs){
+     CatalogDelta next = delta;
+     if (change.before() != null) {
+         next = withoutProgram(next, change.before().getId());
+         if (next == null) {
+             return null;
+         }
+     }
+     if (change.after() != null) {
+         int category = index.categoryCode(change.after().getCategory());
+         if (category < 0) {
+             // A category the index has no code for; rebuilding extends the dictionary.
+             return new RecommendationEngine(programs, mode);
+         }
+         next = next.withInsert(change.after(), baseRank(change.after().getName()), category);
+     }
+     if (next.size() > DELTA_LIMIT) {
+         return new RecommendationEngine(programs, mode);
+     }
+     return new RecommendationEngine(programs, this, next);
+ }
+
+ private CatalogDelta withoutProgram(CatalogDelta current, int programId){
+     CatalogDelta next = current.withoutInserted(programId);
+     if (next != null) {
+         return next;
+     }
+     int position = index.catalogPositionOf(programId);
+     return position < 0 || current.isDeleted(position) ? null : current.withDeleted(position);
+ }
+
+ // Number of indexed programs whose names sort before name.
+ private int baseRank(String name){
+     int low = 0;
+     int high = index.catalogSize();
+     while (low < high) {
+         int mid = (low + high) >>> 1;
+         if (ProgramCatalog.compareNames(index.catalogProgram(mid).getName(), name) < 0) {
+             low = mid + 1;
+         } else {
+             high = mid;
+         }
+     }
+     return low;
+ }
+
+ /**
+  * Match counts for every combination of {@code salaries} and {@code gpas} at
+  * one interest level, computed in a single pass over the index. See
+  * {@link SensitivitySweep}.
+  */
+ public SensitivitySweep sweep(double[] salaries, double[] gpas, Program.InterestLevel interest){
+     return SensitivitySweep.compute(this, salaries, gpas, interest);
+ }
+
+ ProgramIndex index(){
+     return index;
+ }
+
+ CatalogDelta delta(){
+     return delta;
+ }
+
+ public Mode getMode(){
+     return mode;
+ }
+
+ public List<Program> getPrograms(){
+     return programs;
  }
 
  public static class Input {
@@ -39,21 +169,392 @@ public class RecommendationEngine {
      // - program.minIndustrySalary >= input.minAcceptableSalary
      // - input.previousGPA >= program.minRequiredPreviousGPA
      // - input.studentInterest.rank >= program.analyticalInterestRequired.rank
-     List<Recommendation> results = programs.stream()
-         .filter(p -> p.getMinIndustrySalary() >= input.minAcceptableSalary)
-         .filter(p -> input.previousGPA >= p.getMinRequiredPreviousGPA())
-         .filter(p -> input.studentInterest.rank() >= p.getAnalyticalInterestRequired().rank())
-         .map(p -> {
-             // study hours calculation: additional hours to reach post-degree required GPA
-             double gap = p.getRequiredAcceptableGPAAfterDegree() - input.previousGPA;
-             double extraHours = Math.max(0.0, gap); // 1 hour per 1 GPA point
-             // round to two decimals for display
-             extraHours = Math.round(extraHours * 100.0)/100.0;
-             return new Recommendation(p, extraHours);
-         })
-         .collect(Collectors.toList());
+     Scratch scratch = acquireScratch(index.size());
+     try {
+         recommendInto(input, scratch.results, scratch);
+         return materialize(scratch.results);
+     } finally {
+         releaseScratch(scratch);
+     }
+ }
+
+ /**
+  * {@link #recommend} plus the number of matches per category, counted while
+  * the results are written rather than by grouping them afterwards.
+  */
+ public FacetedResults recommendWithFacets(Input input){
+     Scratch scratch = acquireScratch(index.size());
+     try {
+         recommendInto(input, scratch.results, scratch);
+         return new FacetedResults(materialize(scratch.results), scratch.results.facets());
+     } finally {
+         releaseScratch(scratch);
+     }
+ }
 
+ private List<Recommendation> materialize(ResultBuffer buffer){
+     List<Recommendation> results = new ArrayList<>(buffer.size());
+     for (int i = 0; i < buffer.size(); i++) {
+         results.add(new Recommendation(programAt(buffer.programIndex(i)), buffer.extraStudyHours(i)));
+     }
      return results;
  }
-}
 
+ /**
+  * Same matches as {@link #recommend}, in the same order, written into
+  * {@code out} (which is cleared first) as positions in {@link #getPrograms()}
+  * plus extra study hours, and counts the matches per category into
+  * {@link ResultBuffer#facets()}. Once {@code out} and the pooled scratch space
+  * have grown to fit, the call allocates nothing. Returns the match count.
+  */
+ public int recommendInto(Input input, ResultBuffer out){
+     Scratch scratch = acquireScratch(index.size());
+     try {
+         return recommendInto(input, out, scratch);
+     } finally {
+         releaseScratch(scratch);
+     }
+ }
+
+ private int recommendInto(Input input, ResultBuffer out, Scratch scratch){
+     long started = System.nanoTime();
+     int[] hits = scratch.hits;
+     int from = index.lowerBound(input.minAcceptableSalary);
+     int count = collectMatches(input, from, hits);
+     // Restore catalog order so results match the unindexed scan exactly.
+     for (int i = 0; i < count; i++) {
+         hits[i] = index.catalogPosition(hits[i]);
+     }
+     ProgramIndex.sortPositions(hits, count, index.catalogSize(), scratch.sortBuffer, scratch.counts);
+     int matched = emit(input, hits, count, out);
+     RecommendationMetrics.record(programs.size(), index.size() - from, matched, System.nanoTime() - started);
+     return matched;
+ }
+
+ /**
+  * Runs {@code input} with per-stage accounting and returns the results
+  * together with each stage's input and output counts and timings. The
+  * predicates are applied one at a time in plain scalar loops so each can be
+  * counted and timed on its own; the results and counts are the same as
+  * {@link #recommend}, but the timings do not reflect the vectorized kernel or
+  * the answer table. Explained queries are not added to
+  * {@link RecommendationMetrics}.
+  */
+ public Explanation explain(Input input){
+     List<Explanation.Stage> stages = new ArrayList<>();
+     int[] hits = new int[index.size()];
+     long t0 = System.nanoTime();
+     int from = index.lowerBound(input.minAcceptableSalary);
+     int salaryPassed = index.size() - from;
+     long t1 = System.nanoTime();
+     stages.add(new Explanation.Stage("salary", index.catalogSize(), salaryPassed, t1 - t0));
+
+     double previousGPA = input.previousGPA;
+     int gpaPassed = 0;
+     for (int i = from; i < index.size(); i++) {
+         if (previousGPA >= index.previousGpas[i]) {
+             hits[gpaPassed++] = i;
+         }
+     }
+     long t2 = System.nanoTime();
+     stages.add(new Explanation.Stage("previousGpa", salaryPassed, gpaPassed, t2 - t1));
+
+     int interestRank = input.studentInterest.rank();
+     int count = 0;
+     for (int i = 0; i < gpaPassed; i++) {
+         if (interestRank >= index.interestRanks[hits[i]]) {
+             hits[count++] = hits[i];
+         }
+     }
+     long t3 = System.nanoTime();
+     stages.add(new Explanation.Stage("interest", gpaPassed, count, t3 - t2));
+
+     for (int i = 0; i < count; i++) {
+         hits[i] = index.catalogPosition(hits[i]);
+     }
+     ProgramIndex.sortPositions(hits, count, index.catalogSize(), new int[count], new int[ProgramIndex.RADIX]);
+     long t4 = System.nanoTime();
+     stages.add(new Explanation.Stage("sort", count, count, t4 - t3));
+
+     ResultBuffer buffer = new ResultBuffer(count);
+     int matched = emit(input, hits, count, buffer);
+     long materializeStart = t4;
+     if (!delta.isEmpty()) {
+         // Drops pending deletes and adds matching pending inserts.
+         materializeStart = System.nanoTime();
+         stages.add(new Explanation.Stage("overlay", count, matched, materializeStart - t4));
+     }
+     List<Recommendation> results = new ArrayList<>(matched);
+     for (int i = 0; i < matched; i++) {
+         results.add(new Recommendation(programAt(buffer.programIndex(i)), buffer.extraStudyHours(i)));
+     }
+     stages.add(new Explanation.Stage("materialize", matched, matched, System.nanoTime() - materializeStart));
+     return new Explanation(results, stages);
+ }
+
+ // Writes sorted base hits (plus any overlay changes) into out, which is cleared first,
+ // counting matches per category as it goes.
+ private int emit(Input input, int[] hits, int count, ResultBuffer out){
+     out.clear(index.categoryNames);
+     if (!delta.isEmpty()) {
+         return mergeWithDelta(input, hits, count, out);
+     }
+     double previousGPA = input.previousGPA;
+     int[] categories = index.categoryCodes;
+     out.ensureCapacity(count);
+     for (int i = 0; i < count; i++) {
+         int position = hits[i];
+         out.add(position, extraStudyHours(index.catalogProgram(position), previousGPA), categories[position]);
+     }
+     return count;
+ }
+
+ /**
+  * Merges base hits (in catalog order, minus deleted positions) with matching
+  * overlay inserts. An indexed program at base position p lands at
+  * p - (deleted before p) + (inserted before p) in the patched catalog.
+  */
+ private int mergeWithDelta(Input input, int[] hits, int count, ResultBuffer out){
+     double previousGPA = input.previousGPA;
+     int[] deleted = delta.deleted;
+     Program[] inserted = delta.inserted;
+     int[] ranks = delta.insertedRanks;
+     out.ensureCapacity(count + inserted.length);
+     int d = 0;
+     int j = 0;
+     for (int i = 0; i < count; i++) {
+         int position = hits[i];
+         while (j < inserted.length && ranks[j] <= position) {
+             j = emitInserted(j, input, deleted, out);
+         }
+         while (d < deleted.length && deleted[d] < position) {
+             d++;
+         }
+         if (d < deleted.length && deleted[d] == position) {
+             continue;
+         }
+         out.add(position - d + j, extraStudyHours(index.catalogProgram(position), previousGPA),
+                 index.categoryCodes[position]);
+     }
+     while (j < inserted.length) {
+         j = emitInserted(j, input, deleted, out);
+     }
+     return out.size();
+ }
+
+ // Adds inserted[j] if it matches and returns j + 1.
+ private int emitInserted(int j, Input input, int[] deleted, ResultBuffer out){
+     Program p = delta.inserted[j];
+     if (matches(p, input)) {
+         int rank = delta.insertedRanks[j];
+         int deletedBefore = lowerBound(deleted, rank);
+         out.add(rank - deletedBefore + j, extraStudyHours(p, input.previousGPA), delta.insertedCategories[j]);
+     }
+     return j + 1;
+ }
+
+ private static int lowerBound(int[] sorted, int key){
+     int low = 0;
+     int high = sorted.length;
+     while (low < high) {
+         int mid = (low + high) >>> 1;
+         if (sorted[mid] < key) {
+             low = mid + 1;
+         } else {
+             high = mid;
+         }
+     }
+     return low;
+ }
+
+ // Program at a position in getPrograms(); the index keeps its own copy of an unpatched catalog.
+ private Program programAt(int position){
+     return delta.isEmpty() ? index.catalogProgram(position) : programs.get(position);
+ }
+
+ // Same predicate as the filter kernels, for programs outside the index.
+ private static boolean matches(Program p, Input input){
+     return p.getMinIndustrySalary() >= input.minAcceptableSalary
+             && input.previousGPA >= p.getMinRequiredPreviousGPA()
+             && input.studentInterest.rank() >= p.getAnalyticalInterestRequired().rank();
+ }
+
+ /**
+  * Returns at most {@code k} matching programs, best first, scored with the
+  * default {@link RankingWeights}. The filter kernel still writes every match
+  * into a catalog-sized pooled scratch buffer before the k-sized heap ranks
+  * them, so time is O(matches log k) and only the result list is O(k).
+  */
+ public List<Recommendation> recommendTopK(Input input, int k){
+     return recommendTopK(input, k, RankingWeights.DEFAULT);
+ }
+
+ public List<Recommendation> recommendTopK(Input input, int k, RankingWeights weights){
+     if (k < 0) {
+         throw new IllegalArgumentException("k must not be negative.");
+     }
+     Objects.requireNonNull(weights, "weights");
+     long started = System.nanoTime();
+     Scratch scratch = acquireScratch(index.size());
+     try {
+         int[] hits = scratch.hits;
+         int from = index.lowerBound(input.minAcceptableSalary);
+         int count = collectMatches(input, from, hits);
+         Program[] inserted = delta.inserted;
+         TopKHeap heap = new TopKHeap(Math.min(k, count + inserted.length));
+         for (int i = 0; i < count; i++) {
+             int position = hits[i];
+             int catalogPosition = index.catalogPosition(position);
+             if (delta.isDeleted(catalogPosition)) {
+                 continue;
+             }
+             heap.offer(weights.score(input, index.salaries[position], index.previousGpas[position],
+                     index.postDegreeGpas[position]), catalogPosition);
+         }
+         // Overlay programs are numbered after the base catalog, so score ties favour indexed programs.
+         int base = index.catalogSize();
+         for (int i = 0; i < inserted.length; i++) {
+             Program p = inserted[i];
+             if (matches(p, input)) {
+                 heap.offer(weights.score(input, p.getMinIndustrySalary(), p.getMinRequiredPreviousGPA(),
+                         p.getRequiredAcceptableGPAAfterDegree()), base + i);
+             }
+         }
+         int[] ranked = heap.drainBestFirst();
+         List<Recommendation> results = new ArrayList<>(ranked.length);
+         for (int catalogPosition : ranked) {
+             Program p = catalogPosition < base ? index.catalogProgram(catalogPosition) : inserted[catalogPosition - base];
+             results.add(new Recommendation(p, extraStudyHours(p, input.previousGPA)));
+         }
+         RecommendationMetrics.record(programs.size(), index.size() - from, count, System.nanoTime() - started);
+         return results;
+     } finally {
+         releaseScratch(scratch);
+     }
+ }
+
+ /**
+  * Returns at most {@code k} programs the student does not qualify for,
+  * closest first by the default {@link NearMissWeights} distance. Meant for
+  * queries that match nothing: rather than an empty list, the student sees
+  * which requirement each suggestion misses and by how much.
+  */
+ public List<NearMiss> nearMisses(Input input, int k){
+     return nearMisses(input, k, NearMissWeights.DEFAULT);
+ }
+
+ public List<NearMiss> nearMisses(Input input, int k, NearMissWeights weights){
+     if (k < 0) {
+         throw new IllegalArgumentException("k must not be negative.");
+     }
+     Objects.requireNonNull(weights, "weights");
+     if (k == 0 || Double.isNaN(input.minAcceptableSalary) || Double.isNaN(input.previousGPA)) {
+         return List.of();
+     }
+     int rank = input.studentInterest.rank();
+     TopKHeap heap = new TopKHeap(k);
+     requirementTree().nearest(input.minAcceptableSalary, input.previousGPA, rank, weights,
+             delta.isEmpty() ? null : delta::isDeleted, heap);
+     int base = index.catalogSize();
+     Program[] inserted = delta.inserted;
+     for (int i = 0; i < inserted.length; i++) {
+         Program p = inserted[i];
+         if (Double.isNaN(p.getMinIndustrySalary()) || Double.isNaN(p.getMinRequiredPreviousGPA()) || matches(p, input)) {
+             continue;
+         }
+         heap.offer(-NearMiss.of(p, input, weights).distance(), base + i);
+     }
+     int[] ranked = heap.drainBestFirst();
+     List<NearMiss> results = new ArrayList<>(ranked.length);
+     for (int catalogPosition : ranked) {
+         Program p = catalogPosition < base ? index.catalogProgram(catalogPosition) : inserted[catalogPosition - base];
+         results.add(NearMiss.of(p, input, weights));
+     }
+     return results;
+ }
+
+ private RequirementTree requirementTree(){
+     RequirementTree tree = requirementTree.get();
+     if (tree == null) {
+         // Two threads may both build it; either result is equivalent.
+         tree = RequirementTree.build(index);
+         if (!requirementTree.compareAndSet(null, tree)) {
+             tree = requirementTree.get();
+         }
+     }
+     return tree;
+ }
+
+ // Writes the sorted positions of every match at or after from (the salary bound's
+ // binary search result) into hits and returns how many there are.
+ private int collectMatches(Input input, int from, int[] hits){
+     BitSet eligible = answerTable == null ? null : answerTable.lookup(input.previousGPA, input.studentInterest);
+     if (eligible == null) {
+         return KERNEL.filter(index, from, input.previousGPA, input.studentInterest.rank(), hits);
+     }
+     // Salary suffix AND eligibility set: read the set's bits from the salary bound onwards.
+     int count = 0;
+     for (int i = eligible.nextSetBit(from); i >= 0; i = eligible.nextSetBit(i + 1)) {
+         hits[count++] = i;
+     }
+     return count;
+ }
+
+ private static Scratch acquireScratch(int size){
+     Scratch scratch = null;
+     int slots = SCRATCH.length();
+     // Start at a per-thread slot so concurrent queries mostly touch different slots.
+     int start = (int) (Thread.currentThread().threadId() % slots);
+     for (int i = 0; i < slots && scratch == null; i++) {
+         int slot = (start + i) % slots;
+         Scratch idle = SCRATCH.get(slot);
+         if (idle != null && SCRATCH.compareAndSet(slot, idle, null)) {
+             scratch = idle;
+         }
+     }
+     if (scratch == null) {
+         scratch = new Scratch();
+     }
+     if (scratch.hits.length < size) {
+         scratch.hits = new int[size];
+         scratch.sortBuffer = new int[size];
+     }
+     return scratch;
+ }
+
+ private static void releaseScratch(Scratch scratch){
+     int slots = SCRATCH.length();
+     int start = (int) (Thread.currentThread().threadId() % slots);
+     for (int i = 0; i < slots; i++) {
+         int slot = (start + i) % slots;
+         if (SCRATCH.get(slot) == null && SCRATCH.compareAndSet(slot, null, scratch)) {
+             return;
+         }
+     }
+ }
+
+ private static final class Scratch {
+     int[] hits = new int[0];
+     int[] sortBuffer = new int[0];
+     final int[] counts = new int[ProgramIndex.RADIX];
+     final ResultBuffer results = new ResultBuffer();
+ }
+
+ /**
+  * Recommends for every input on the common fork/join pool, sharing this
+  * engine's index. Results are in input order. Use {@link CohortRecommender}
+  * for a dedicated pool, a chosen parallelism or throughput statistics.
+  */
+ public List<List<Recommendation>> recommendAll(List<Input> inputs){
+     return CohortRecommender.recommendAll(this, Objects.requireNonNull(inputs, "inputs"),
+             ForkJoinPool.commonPool());
+ }
+
+ static double extraStudyHours(Program p, double previousGPA){
+     // study hours calculation: additional hours to reach post-degree required GPA
+     double gap = p.getRequiredAcceptableGPAAfterDegree() - previousGPA;
+     double extraHours = Math.max(0.0, gap); // 1 hour per 1 GPA point
+     // round to two decimals for display
+     return Math.round(extraHours * 100.0)/100.0;
+ }
+}
@@ -0,0 +1,75 @@
+package controllers;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide cumulative counters for every {@link RecommendationEngine}
+ * query. Engines are rebuilt with each catalog change, so the counters live
+ * here rather than on an engine. Recording costs a few uncontended
+ * {@link LongAdder} increments per query; use
+ * {@link RecommendationEngine#explain} for a per-predicate breakdown of one
+ * query.
+ */
+public final class RecommendationMetrics {
+	private static final LongAdder QUERIES = new LongAdder();
+	private static final LongAdder PROGRAMS_CONSIDERED = new LongAdder();
+	private static final LongAdder SALARY_PASSED = new LongAdder();
+	private static final LongAdder MATCHES = new LongAdder();
+	private static final LongAdder NANOS = new LongAdder();
+
+	private RecommendationMetrics() {
+	}
+
+	/**
+	 * Totals since start-up (or the last {@link #reset()}). {@code salaryPassed}
+	 * counts indexed programs at or above each query's salary bound.
+	 */
+	public record Snapshot(long queries, long programsConsidered, long salaryPassed, long matches, long totalNanos) {
+
+		/** Fraction of considered programs that survive the salary bound. */
+		public double salarySelectivity() {
+			return programsConsidered == 0 ? 0.0 : (double) salaryPassed / programsConsidered;
+		}
+
+		/** Fraction of salary survivors that also pass the GPA and interest bounds. */
+		public double remainingSelectivity() {
+			return salaryPassed == 0 ? 0.0 : (double) matches / salaryPassed;
+		}
+
+		public double averageMatches() {
+			return queries == 0 ? 0.0 : (double) matches / queries;
+		}
+
+		public double averageMicros() {
+			return queries == 0 ? 0.0 : totalNanos / 1_000.0 / queries;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(
+					"RecommendationMetrics[queries=%d, salary selectivity=%.4f, remaining selectivity=%.4f, "
+							+ "avg matches=%.1f, avg=%.2fus]",
+					queries, salarySelectivity(), remainingSelectivity(), averageMatches(), averageMicros());
+		}
+	}
+
+	public static Snapshot snapshot() {
+		return new Snapshot(QUERIES.sum(), PROGRAMS_CONSIDERED.sum(), SALARY_PASSED.sum(), MATCHES.sum(), NANOS.sum());
+	}
+
+	public static void reset() {
+		QUERIES.reset();
+		PROGRAMS_CONSIDERED.reset();
+		SALARY_PASSED.reset();
+		MATCHES.reset();
+		NANOS.reset();
+	}
+
+	static void record(int programsConsidered, int salaryPassed, int matches, long nanos) {
+		QUERIES.increment();
+		PROGRAMS_CONSIDERED.add(programsConsidered);
+		SALARY_PASSED.add(salaryPassed);
+		MATCHES.add(matches);
+		NANOS.add(nanos);
+	}
+}
@@ -0,0 +1,148 @@
+package controllers;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import model.ProgramCatalog;
+import model.ProgramRepository;
+
+/**
+ * Chooses, per query, between the in-memory {@link RecommendationEngine} and
+ * the SQL {@link PushdownRecommender}. Selectivity comes from
+ * {@link CatalogStatistics}; the cost model charges the in-memory path for
+ * loading the catalog and building the engine when they are not resident
+ * (amortized over {@code degree.recommend.planner.amortizeQueries} queries),
+ * and the pushdown path for its query overhead plus per-row decoding. Both
+ * paths return identical results, so the choice only affects latency and
+ * memory.
+ */
+public final class RecommendationPlanner {
+	private static final System.Logger LOG = System.getLogger(RecommendationPlanner.class.getName());
+
+	// Microsecond costs measured with bench/ (PushdownBenchmark, RecommendationBenchmark, RepositoryBenchmark).
+	private static final double PUSHDOWN_QUERY_MICROS = 50.0;
+	private static final double PUSHDOWN_SCANNED_ROW_MICROS = 0.05;
+	private static final double PUSHDOWN_MATCH_MICROS = 3.6;
+	private static final double MEMORY_QUERY_MICROS = 1.0;
+	private static final double MEMORY_SCANNED_ROW_MICROS = 0.002;
+	private static final double MEMORY_MATCH_MICROS = 0.085;
+	private static final double CATALOG_LOAD_ROW_MICROS = 3.4;
+	private static final double ENGINE_BUILD_ROW_MICROS = 0.2;
+
+	public enum Strategy {
+		IN_MEMORY, PUSHDOWN
+	}
+
+	public record Plan(Strategy strategy, double selectivity, long estimatedMatches, double inMemoryCostMicros,
+			double pushdownCostMicros) {
+
+		@Override
+		public String toString() {
+			return String.format("Plan[%s, selectivity=%.4f, est=%d, memory=%.1fus, pushdown=%.1fus]", strategy,
+					selectivity, estimatedMatches, inMemoryCostMicros, pushdownCostMicros);
+		}
+	}
+
+	public record Stats(long inMemoryPlans, long pushdownPlans, long executions, long absoluteEstimateError) {
+
+		public double meanAbsoluteEstimateError() {
+			return executions == 0 ? 0.0 : (double) absoluteEstimateError / executions;
+		}
+	}
+
+	private final ProgramRepository repository;
+	private final RecommendationService service;
+	private final PushdownRecommender pushdown;
+	private final int amortizeQueries;
+	private final AtomicLong generation = new AtomicLong();
+	private volatile CatalogStatistics statistics;
+
+	private final LongAdder inMemoryPlans = new LongAdder();
+	private final LongAdder pushdownPlans = new LongAdder();
+	private final LongAdder executions = new LongAdder();
+	private final LongAdder estimateError = new LongAdder();
+
+	RecommendationPlanner(ProgramRepository repository, RecommendationService service) {
+		this.repository = Objects.requireNonNull(repository, "repository");
+		this.service = Objects.requireNonNull(service, "service");
+		this.pushdown = new PushdownRecommender(repository);
+		this.amortizeQueries = Math.max(1, Integer.getInteger("degree.recommend.planner.amortizeQueries", 50));
+		repository.addCatalogListener(catalog -> {
+			statistics = null;
+			generation.incrementAndGet();
+		});
+	}
+
+	/**
+	 * Increases whenever the catalog changes; results planned under one
+	 * generation may be cached under it.
+	 */
+	long generation() {
+		return generation.get();
+	}
+
+	public CatalogStatistics statistics() {
+		CatalogStatistics stats = statistics;
+		if (stats != null) {
+			return stats;
+		}
+		ProgramCatalog catalog = repository.peekCatalog();
+		try {
+			stats = catalog != null ? CatalogStatistics.of(catalog.getPrograms())
+					: CatalogStatistics.collect(repository);
+		} catch (SQLException ex) {
+			throw new IllegalStateException("Unable to collect catalog statistics", ex);
+		}
+		statistics = stats;
+		return stats;
+	}
+
+	public Plan plan(RecommendationEngine.Input input) {
+		Objects.requireNonNull(input, "input");
+		CatalogStatistics stats = statistics();
+		long rows = stats.getRowCount();
+		double selectivity = stats.selectivity(input);
+		double matches = selectivity * rows;
+		double scanned = stats.salarySelectivity(input.minAcceptableSalary) * rows;
+
+		double pushdownCost = PUSHDOWN_QUERY_MICROS + scanned * PUSHDOWN_SCANNED_ROW_MICROS
+				+ matches * PUSHDOWN_MATCH_MICROS;
+		double memoryCost = MEMORY_QUERY_MICROS + scanned * MEMORY_SCANNED_ROW_MICROS + matches * MEMORY_MATCH_MICROS;
+		if (service.engineIfCurrent() == null) {
+			double setup = rows * ENGINE_BUILD_ROW_MICROS;
+			if (repository.peekCatalog() == null) {
+				setup += rows * CATALOG_LOAD_ROW_MICROS;
+			}
+			memoryCost += setup / amortizeQueries;
+		}
+		Strategy strategy = memoryCost <= pushdownCost ? Strategy.IN_MEMORY : Strategy.PUSHDOWN;
+		return new Plan(strategy, selectivity, Math.round(matches), memoryCost, pushdownCost);
+	}
+
+	public List<RecommendationEngine.Recommendation> recommend(RecommendationEngine.Input input) {
+		Plan plan = plan(input);
+		long started = System.nanoTime();
+		List<RecommendationEngine.Recommendation> results;
+		if (plan.strategy() == Strategy.IN_MEMORY) {
+			inMemoryPlans.increment();
+			results = service.engine().recommend(input);
+		} else {
+			pushdownPlans.increment();
+			results = pushdown.recommend(input);
+		}
+		long error = Math.abs(results.size() - plan.estimatedMatches());
+		executions.increment();
+		estimateError.add(error);
+		LOG.log(System.Logger.Level.DEBUG, () -> String.format("%s -> %d matches (error %d) in %dus", plan,
+				results.size(), error, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started)));
+		return results;
+	}
+
+	public Stats stats() {
+		return new Stats(inMemoryPlans.sum(), pushdownPlans.sum(), executions.sum(), estimateError.sum());
+	}
+}
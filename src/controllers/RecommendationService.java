@@ -0,0 +1,195 @@
+package controllers;
+
+import java.util.List;
+import java.util.Objects;
+
+import model.Program;
+import model.ProgramCatalog;
+import model.ProgramRepository;
+
+/**
+ * Student-facing entry point for recommendations. Keeps one
+ * {@link RecommendationEngine} per catalog snapshot so the engine's indexes are
+ * built once and reused until an admin changes the catalog. Single program
+ * writes are folded into the current engine as they are published (see
+ * {@link RecommendationEngine#withChange}), so queries never wait on a rebuild
+ * while admins edit programs.
+ */
+public class RecommendationService {
+
+	private final ProgramRepository repository;
+	private final RecommendationEngine.Mode mode;
+	private final RecommendationCache cache = RecommendationCache.fromSystemProperties();
+	// Assigned once by create(), before the service is handed out.
+	private RecommendationPlanner planner;
+	private final NearMissWeights nearMissWeights = NearMissWeights.fromSystemProperties();
+	private final Object engineLock = new Object();
+	private volatile CatalogEngine current;
+
+	private record CatalogEngine(long version, RecommendationEngine engine) {
+	}
+
+	private RecommendationService(ProgramRepository repository, RecommendationEngine.Mode mode) {
+		this.repository = Objects.requireNonNull(repository, "repository");
+		this.mode = Objects.requireNonNull(mode, "mode");
+	}
+
+	public static RecommendationService create(ProgramRepository repository) {
+		return create(repository, Boolean.getBoolean("degree.recommend.answerTable")
+				? RecommendationEngine.Mode.ANSWER_TABLE
+				: RecommendationEngine.Mode.INDEXED);
+	}
+
+	/**
+	 * Creates a service and subscribes it to {@code repository}'s catalog
+	 * changes. Subscribing happens only once the service is fully constructed,
+	 * so a change published meanwhile never reaches a half-built instance.
+	 */
+	public static RecommendationService create(ProgramRepository repository, RecommendationEngine.Mode mode) {
+		RecommendationService service = new RecommendationService(repository, mode);
+		repository.addCatalogListener(catalog -> {
+			service.cache.invalidateAll();
+			service.advanceEngine(catalog);
+		});
+		// Opt-in: lets each query pick between the in-memory engine and SQL pushdown.
+		if (Boolean.getBoolean("degree.recommend.planner")) {
+			service.planner = new RecommendationPlanner(repository, service);
+		}
+		return service;
+	}
+
+	/**
+	 * Recommends through the result cache. The GPA is normalized to two decimals
+	 * (see {@link RecommendationCache#normalize}) before the engine runs.
+	 */
+	public List<RecommendationEngine.Recommendation> recommend(RecommendationEngine.Input input) {
+		Objects.requireNonNull(input, "input");
+		if (planner != null) {
+			return cache.get(planner.generation(), input, planner::recommend);
+		}
+		CatalogEngine engine = currentEngine();
+		return cache.get(engine.version(), input, engine.engine()::recommend);
+	}
+
+	/**
+	 * Recommends with per-category match counts, through the same result cache
+	 * as {@link #recommend}. On a miss the engine counts categories in its
+	 * filtering pass; when the planner is enabled the results may come from SQL
+	 * pushdown, and are then grouped after the fact. The GPA is normalized as
+	 * in {@link #recommend}.
+	 */
+	public FacetedResults recommendWithFacets(RecommendationEngine.Input input) {
+		Objects.requireNonNull(input, "input");
+		if (planner != null) {
+			return cache.getWithFacets(planner.generation(), input, normalized -> {
+				List<RecommendationEngine.Recommendation> results = planner.recommend(normalized);
+				return new FacetedResults(results, CategoryFacets.of(results));
+			});
+		}
+		CatalogEngine engine = currentEngine();
+		return cache.getWithFacets(engine.version(), input, engine.engine()::recommendWithFacets);
+	}
+
+	/**
+	 * Returns the {@code k} best-ranked matches for the current catalog.
+	 */
+	public List<RecommendationEngine.Recommendation> recommendTop(RecommendationEngine.Input input, int k) {
+		Objects.requireNonNull(input, "input");
+		return engine().recommendTopK(input, k);
+	}
+
+	/**
+	 * The {@code k} programs {@code input} misses by the least, for showing
+	 * instead of an empty result. Weights come from
+	 * {@code degree.recommend.nearMiss.*} (see {@link NearMissWeights}).
+	 */
+	public List<NearMiss> nearMisses(RecommendationEngine.Input input, int k) {
+		Objects.requireNonNull(input, "input");
+		return engine().nearMisses(input, k, nearMissWeights);
+	}
+
+	/**
+	 * What-if grid of match counts over {@code salaries} x {@code gpas} for one
+	 * interest level against the current catalog.
+	 */
+	public SensitivitySweep sweep(double[] salaries, double[] gpas, Program.InterestLevel interest) {
+		return engine().sweep(salaries, gpas, interest);
+	}
+
+	/**
+	 * Runs {@code input} against the current engine with per-stage counts and
+	 * timings; bypasses the result cache.
+	 */
+	public Explanation explain(RecommendationEngine.Input input) {
+		Objects.requireNonNull(input, "input");
+		return engine().explain(input);
+	}
+
+	/**
+	 * Returns the query planner, or {@code null} unless
+	 * {@code -Ddegree.recommend.planner=true} is set.
+	 */
+	public RecommendationPlanner getPlanner() {
+		return planner;
+	}
+
+	public RecommendationCache.Stats getCacheStats() {
+		return cache.stats();
+	}
+
+	public List<List<RecommendationEngine.Recommendation>> recommendAll(List<RecommendationEngine.Input> inputs) {
+		return engine().recommendAll(inputs);
+	}
+
+	/**
+	 * Returns the engine for the current catalog, rebuilding it only when the
+	 * catalog version has moved on.
+	 */
+	public RecommendationEngine engine() {
+		return currentEngine().engine();
+	}
+
+	/**
+	 * Returns the engine only if one is already built for the resident catalog
+	 * snapshot; never loads or builds anything.
+	 */
+	RecommendationEngine engineIfCurrent() {
+		ProgramCatalog catalog = repository.peekCatalog();
+		CatalogEngine cached = current;
+		return catalog != null && cached != null && cached.version() == catalog.getVersion() ? cached.engine() : null;
+	}
+
+	private CatalogEngine currentEngine() {
+		ProgramCatalog catalog = repository.getCatalog();
+		CatalogEngine cached = current;
+		if (cached != null && cached.version() >= catalog.getVersion()) {
+			return cached;
+		}
+		synchronized (engineLock) {
+			cached = current;
+			if (cached == null || cached.version() < catalog.getVersion()) {
+				cached = new CatalogEngine(catalog.getVersion(), new RecommendationEngine(catalog.getPrograms(), mode));
+				current = cached;
+			}
+			return cached;
+		}
+	}
+
+	// Runs on the writer's thread. Listeners may be called out of order, so older snapshots are ignored.
+	private void advanceEngine(ProgramCatalog catalog) {
+		synchronized (engineLock) {
+			CatalogEngine cached = current;
+			if (cached == null || cached.version() >= catalog.getVersion()) {
+				return;
+			}
+			RecommendationEngine engine = null;
+			if (catalog.getChange() != null && cached.version() == catalog.getVersion() - 1) {
+				engine = cached.engine().withChange(catalog.getChange(), catalog.getPrograms());
+			}
+			if (engine == null) {
+				engine = new RecommendationEngine(catalog.getPrograms(), mode);
+			}
+			current = new CatalogEngine(catalog.getVersion(), engine);
+		}
+	}
+}
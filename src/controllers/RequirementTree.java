@@ -0,0 +1,360 @@
+package controllers;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Static k-d tree over the (salary, GPA requirement, interest rank) points of
+ * a {@link ProgramIndex}, for finding the programs a student misses by the
+ * least ({@link #nearest}) and for three-sided dominance queries
+ * ({@link #dominated}). Each node keeps the bounding box of its points, and the
+ * {@link NearMissWeights} distance of any point in a box is at least the
+ * distance of the box's most favourable corner, so a best-first search can
+ * stop as soon as the closest unvisited box is farther than the k-th best
+ * program found. Programs with a NaN salary or GPA requirement are left out:
+ * their distance is undefined.
+ * <p>
+ * Programs the query fully matches lie in boxes whose bound is zero, so they
+ * are still visited; the search is fastest when, as for an empty result, the
+ * query matches few programs.
+ */
+final class RequirementTree {
+	private static final int LEAF_SIZE = 8;
+
+	// Points in tree order; ids are catalog positions.
+	private final double[] salaries;
+	private final double[] gpas;
+	private final byte[] ranks;
+	private final int[] ids;
+
+	// Nodes: point range [start, end), children (-1 for a leaf) and bounding box.
+	private final int[] start;
+	private final int[] end;
+	private final int[] left;
+	private final int[] right;
+	private final double[] minSalary;
+	private final double[] maxSalary;
+	private final double[] minGpa;
+	private final double[] maxGpa;
+	private final byte[] minRank;
+	private final byte[] maxRank;
+	private int nodeCount;
+
+	private RequirementTree(double[] salaries, double[] gpas, byte[] ranks, int[] ids) {
+		this.salaries = salaries;
+		this.gpas = gpas;
+		this.ranks = ranks;
+		this.ids = ids;
+		// Inner nodes split at the median and stop at LEAF_SIZE, so leaves hold at least LEAF_SIZE / 2 points.
+		int capacity = 2 * (ids.length / (LEAF_SIZE / 2)) + 1;
+		this.start = new int[capacity];
+		this.end = new int[capacity];
+		this.left = new int[capacity];
+		this.right = new int[capacity];
+		this.minSalary = new double[capacity];
+		this.maxSalary = new double[capacity];
+		this.minGpa = new double[capacity];
+		this.maxGpa = new double[capacity];
+		this.minRank = new byte[capacity];
+		this.maxRank = new byte[capacity];
+	}
+
+	// Ids are catalog positions.
+	static RequirementTree build(ProgramIndex index) {
+		int n = index.size();
+		int[] ids = new int[n];
+		for (int i = 0; i < n; i++) {
+			ids[i] = index.catalogPosition(i);
+		}
+		return of(index.salaries, index.previousGpas, index.interestRanks, ids, n);
+	}
+
+	/**
+	 * Builds a tree over the first {@code count} points of the given columns,
+	 * which are copied and left unchanged. Queries report the {@code idColumn}
+	 * value of each point.
+	 */
+	static RequirementTree of(double[] salaryColumn, double[] gpaColumn, byte[] rankColumn, int[] idColumn, int count) {
+		double[] salaries = new double[count];
+		double[] gpas = new double[count];
+		byte[] ranks = new byte[count];
+		int[] ids = new int[count];
+		int size = 0;
+		for (int i = 0; i < count; i++) {
+			if (!Double.isNaN(salaryColumn[i]) && !Double.isNaN(gpaColumn[i])) {
+				salaries[size] = salaryColumn[i];
+				gpas[size] = gpaColumn[i];
+				ranks[size] = rankColumn[i];
+				ids[size] = idColumn[i];
+				size++;
+			}
+		}
+		RequirementTree tree = new RequirementTree(Arrays.copyOf(salaries, size), Arrays.copyOf(gpas, size),
+				Arrays.copyOf(ranks, size), Arrays.copyOf(ids, size));
+		if (size > 0) {
+			tree.buildNode(0, size);
+		}
+		return tree;
+	}
+
+	int size() {
+		return ids.length;
+	}
+
+	/**
+	 * Offers every program at a positive distance from the query to
+	 * {@code heap} as (-distance, catalog position), visiting only the boxes
+	 * that can still beat the heap's weakest entry. Programs that fully match
+	 * (distance 0) and those {@code skip} rejects are not offered.
+	 */
+	void nearest(double minAcceptableSalary, double previousGpa, int interestRank, NearMissWeights weights,
+			IntPredicate skip, TopKHeap heap) {
+		if (nodeCount == 0) {
+			return;
+		}
+		NodeQueue queue = new NodeQueue();
+		queue.push(0.0, 0);
+		while (!queue.isEmpty()) {
+			double bound = queue.peekBound();
+			// Strictly greater: an equal-distance program could still win on the lower catalog position.
+			if (heap.isFull() && bound > -heap.weakestScore()) {
+				return;
+			}
+			int node = queue.pop();
+			if (left[node] >= 0) {
+				push(queue, left[node], minAcceptableSalary, previousGpa, interestRank, weights, heap);
+				push(queue, right[node], minAcceptableSalary, previousGpa, interestRank, weights, heap);
+				continue;
+			}
+			for (int i = start[node]; i < end[node]; i++) {
+				double salaryShortfall = Math.max(0.0, minAcceptableSalary - salaries[i]);
+				double gpaDeficit = Math.max(0.0, gpas[i] - previousGpa);
+				int interestGap = Math.max(0, ranks[i] - interestRank);
+				if (salaryShortfall == 0.0 && gpaDeficit == 0.0 && interestGap == 0) {
+					continue;
+				}
+				if (skip != null && skip.test(ids[i])) {
+					continue;
+				}
+				heap.offer(-weights.distance(salaryShortfall, gpaDeficit, interestGap), ids[i]);
+			}
+		}
+	}
+
+	/**
+	 * Passes to {@code sink} the id of every point with salary
+	 * {@code >= salaryAtLeast}, GPA requirement {@code <= gpaAtMost} and
+	 * interest rank {@code <= rankAtMost}: exactly the programs a student with
+	 * that salary floor, GPA and interest qualifies for. Boxes wholly inside the
+	 * query are reported without testing their points and boxes wholly outside
+	 * it are skipped, so only boxes straddling a query face are scanned.
+	 */
+	void dominated(double salaryAtLeast, double gpaAtMost, int rankAtMost, IntConsumer sink) {
+		// A NaN bound is satisfied by nothing, as in RecommendationEngine's filter.
+		if (nodeCount > 0 && !Double.isNaN(salaryAtLeast) && !Double.isNaN(gpaAtMost)) {
+			dominated(0, salaryAtLeast, gpaAtMost, rankAtMost, sink);
+		}
+	}
+
+	private void dominated(int node, double salaryAtLeast, double gpaAtMost, int rankAtMost, IntConsumer sink) {
+		if (maxSalary[node] < salaryAtLeast || minGpa[node] > gpaAtMost || minRank[node] > rankAtMost) {
+			return;
+		}
+		if (minSalary[node] >= salaryAtLeast && maxGpa[node] <= gpaAtMost && maxRank[node] <= rankAtMost) {
+			for (int i = start[node]; i < end[node]; i++) {
+				sink.accept(ids[i]);
+			}
+			return;
+		}
+		if (left[node] < 0) {
+			for (int i = start[node]; i < end[node]; i++) {
+				if (salaries[i] >= salaryAtLeast && gpas[i] <= gpaAtMost && ranks[i] <= rankAtMost) {
+					sink.accept(ids[i]);
+				}
+			}
+			return;
+		}
+		dominated(left[node], salaryAtLeast, gpaAtMost, rankAtMost, sink);
+		dominated(right[node], salaryAtLeast, gpaAtMost, rankAtMost, sink);
+	}
+
+	// Queues node keyed by the distance of its box's most favourable corner, unless that already loses to the heap.
+	private void push(NodeQueue queue, int node, double minAcceptableSalary, double previousGpa, int interestRank,
+			NearMissWeights weights, TopKHeap heap) {
+		double bound = weights.distance(Math.max(0.0, minAcceptableSalary - maxSalary[node]),
+				Math.max(0.0, minGpa[node] - previousGpa), Math.max(0, minRank[node] - interestRank));
+		if (!heap.isFull() || bound <= -heap.weakestScore()) {
+			queue.push(bound, node);
+		}
+	}
+
+	private int buildNode(int from, int to) {
+		int node = nodeCount++;
+		start[node] = from;
+		end[node] = to;
+		double loS = Double.POSITIVE_INFINITY;
+		double hiS = Double.NEGATIVE_INFINITY;
+		double loG = Double.POSITIVE_INFINITY;
+		double hiG = Double.NEGATIVE_INFINITY;
+		int loR = Integer.MAX_VALUE;
+		int hiR = Integer.MIN_VALUE;
+		for (int i = from; i < to; i++) {
+			loS = Math.min(loS, salaries[i]);
+			hiS = Math.max(hiS, salaries[i]);
+			loG = Math.min(loG, gpas[i]);
+			hiG = Math.max(hiG, gpas[i]);
+			loR = Math.min(loR, ranks[i]);
+			hiR = Math.max(hiR, ranks[i]);
+		}
+		minSalary[node] = loS;
+		maxSalary[node] = hiS;
+		minGpa[node] = loG;
+		maxGpa[node] = hiG;
+		minRank[node] = (byte) loR;
+		maxRank[node] = (byte) hiR;
+		left[node] = -1;
+		right[node] = -1;
+		if (to - from <= LEAF_SIZE) {
+			return node;
+		}
+		// Split the dimension with the widest spread relative to the whole tree's, so boxes stay roughly square
+		// in distance terms whatever the weights are.
+		double salarySpread = relative(hiS - loS, maxSalary[0] - minSalary[0]);
+		double gpaSpread = relative(hiG - loG, maxGpa[0] - minGpa[0]);
+		double rankSpread = relative(hiR - loR, maxRank[0] - minRank[0]);
+		int dimension = salarySpread >= gpaSpread && salarySpread >= rankSpread ? 0 : gpaSpread >= rankSpread ? 1 : 2;
+		int mid = (from + to) >>> 1;
+		select(from, to, mid, dimension);
+		left[node] = buildNode(from, mid);
+		right[node] = buildNode(mid, to);
+		return node;
+	}
+
+	private static double relative(double spread, double total) {
+		return total > 0.0 ? spread / total : 0.0;
+	}
+
+	// Quickselect: afterwards position k holds the value it would in sorted order, with no larger value before it
+	// and no smaller one after.
+	private void select(int from, int to, int k, int dimension) {
+		int low = from;
+		int high = to - 1;
+		while (low < high) {
+			double pivot = key(medianOfThree(low, (low + high) >>> 1, high, dimension), dimension);
+			int i = low;
+			int j = high;
+			while (i <= j) {
+				while (key(i, dimension) < pivot) {
+					i++;
+				}
+				while (key(j, dimension) > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					swap(i++, j--);
+				}
+			}
+			if (k <= j) {
+				high = j;
+			} else if (k >= i) {
+				low = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private int medianOfThree(int a, int b, int c, int dimension) {
+		double ka = key(a, dimension);
+		double kb = key(b, dimension);
+		double kc = key(c, dimension);
+		if (ka < kb) {
+			return kb < kc ? b : ka < kc ? c : a;
+		}
+		return ka < kc ? a : kb < kc ? c : b;
+	}
+
+	private double key(int i, int dimension) {
+		return switch (dimension) {
+			case 0 -> salaries[i];
+			case 1 -> gpas[i];
+			default -> ranks[i];
+		};
+	}
+
+	private void swap(int a, int b) {
+		double salary = salaries[a];
+		salaries[a] = salaries[b];
+		salaries[b] = salary;
+		double gpa = gpas[a];
+		gpas[a] = gpas[b];
+		gpas[b] = gpa;
+		byte rank = ranks[a];
+		ranks[a] = ranks[b];
+		ranks[b] = rank;
+		int id = ids[a];
+		ids[a] = ids[b];
+		ids[b] = id;
+	}
+
+	// Min-heap of (lower bound, node) for the best-first search.
+	private static final class NodeQueue {
+		private double[] bounds = new double[64];
+		private int[] nodes = new int[64];
+		private int size;
+
+		boolean isEmpty() {
+			return size == 0;
+		}
+
+		double peekBound() {
+			return bounds[0];
+		}
+
+		void push(double bound, int node) {
+			if (size == bounds.length) {
+				bounds = Arrays.copyOf(bounds, size * 2);
+				nodes = Arrays.copyOf(nodes, size * 2);
+			}
+			int i = size++;
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (bounds[parent] <= bound) {
+					break;
+				}
+				bounds[i] = bounds[parent];
+				nodes[i] = nodes[parent];
+				i = parent;
+			}
+			bounds[i] = bound;
+			nodes[i] = node;
+		}
+
+		int pop() {
+			int top = nodes[0];
+			size--;
+			double bound = bounds[size];
+			int node = nodes[size];
+			int i = 0;
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= size) {
+					break;
+				}
+				if (child + 1 < size && bounds[child + 1] < bounds[child]) {
+					child++;
+				}
+				if (bounds[child] >= bound) {
+					break;
+				}
+				bounds[i] = bounds[child];
+				nodes[i] = nodes[child];
+				i = child;
+			}
+			bounds[i] = bound;
+			nodes[i] = node;
+			return top;
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package controllers;
+
+import java.util.Arrays;
+
+/**
+ * Reusable holder for {@link RecommendationEngine#recommendInto} results:
+ * matched positions in {@link RecommendationEngine#getPrograms()} and the
+ * suggested extra study hours for each, in catalog order, plus how many
+ * matches fall in each category (see {@link #facets()}). The arrays grow to
+ * the largest result seen and are then reused, so a buffer kept per thread
+ * makes repeated queries allocation-free. Not thread-safe.
+ */
+public final class ResultBuffer {
+	private int[] programIndices;
+	private double[] extraStudyHours;
+	private int size;
+	// Category dictionary of the engine that last filled the buffer, and matches per code.
+	private String[] categories = new String[0];
+	private int[] categoryCounts = new int[0];
+
+	public ResultBuffer() {
+		this(16);
+	}
+
+	public ResultBuffer(int initialCapacity) {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("Capacity must not be negative.");
+		}
+		this.programIndices = new int[initialCapacity];
+		this.extraStudyHours = new double[initialCapacity];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int capacity() {
+		return programIndices.length;
+	}
+
+	/** Position of the {@code i}-th match in the engine's program list. */
+	public int programIndex(int i) {
+		checkIndex(i);
+		return programIndices[i];
+	}
+
+	public double extraStudyHours(int i) {
+		checkIndex(i);
+		return extraStudyHours[i];
+	}
+
+	/**
+	 * Matches per category for the results currently held. Allocates; the
+	 * counts themselves were gathered while the results were written.
+	 */
+	public CategoryFacets facets() {
+		return CategoryFacets.of(categories, categoryCounts);
+	}
+
+	public void clear() {
+		size = 0;
+		Arrays.fill(categoryCounts, 0, categories.length, 0);
+	}
+
+	// Clears the buffer and switches it to counting against the given category dictionary.
+	void clear(String[] dictionary) {
+		size = 0;
+		if (categoryCounts.length < dictionary.length) {
+			categoryCounts = new int[dictionary.length];
+		} else {
+			Arrays.fill(categoryCounts, 0, dictionary.length, 0);
+		}
+		categories = dictionary;
+	}
+
+	void ensureCapacity(int capacity) {
+		if (capacity > programIndices.length) {
+			int grown = Math.max(capacity, programIndices.length + (programIndices.length >> 1));
+			programIndices = Arrays.copyOf(programIndices, grown);
+			extraStudyHours = Arrays.copyOf(extraStudyHours, grown);
+		}
+	}
+
+	// Callers size the buffer with ensureCapacity first; this is the hot loop's only store.
+	void add(int programIndex, double hours, int categoryCode) {
+		programIndices[size] = programIndex;
+		extraStudyHours[size] = hours;
+		categoryCounts[categoryCode]++;
+		size++;
+	}
+
+	private void checkIndex(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+		}
+	}
+}
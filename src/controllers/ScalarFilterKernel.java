@@ -0,0 +1,105 @@
+package controllers;
+
+/**
+ * Scalar GPA/interest filter that picks its loop per query. A strided sample
+ * of the salary-qualified suffix estimates how often each predicate passes.
+ * When one of them rejects most rows it is tested first: its branch is then
+ * well predicted and the second load is mostly skipped. When both pass often
+ * the GPA-first loop is kept, and in between, where a short-circuit branch
+ * would mispredict constantly, the two tests are fused into a branch-free
+ * loop. Each variant is its own small method so the JIT compiles every loop
+ * monomorphically. {@code -Ddegree.recommend.predicateOrder=fixed} always
+ * uses the GPA-first loop.
+ */
+final class ScalarFilterKernel implements FilterKernel {
+	static final ScalarFilterKernel INSTANCE = new ScalarFilterKernel(
+			!"fixed".equalsIgnoreCase(System.getProperty("degree.recommend.predicateOrder", "adaptive")));
+
+	private static final int SAMPLE_SIZE = 64;
+	// Shorter suffixes are scanned directly; sampling would cost a noticeable fraction of the scan.
+	private static final int MIN_SAMPLED_ROWS = 16 * SAMPLE_SIZE;
+	private static final int SHORT_CIRCUIT_MAX_PASSES = SAMPLE_SIZE / 4;
+	private static final int PREDICTABLE_MIN_PASSES = SAMPLE_SIZE - SAMPLE_SIZE / 10;
+
+	enum Order {
+		GPA_FIRST, INTEREST_FIRST, FUSED
+	}
+
+	private final boolean adaptive;
+
+	private ScalarFilterKernel(boolean adaptive) {
+		this.adaptive = adaptive;
+	}
+
+	@Override
+	public int filter(ProgramIndex index, int from, double previousGPA, int interestRank, int[] out) {
+		switch (choose(index, from, previousGPA, interestRank)) {
+		case INTEREST_FIRST:
+			return interestFirst(index.previousGpas, index.interestRanks, from, previousGPA, interestRank, out);
+		case FUSED:
+			return fused(index.previousGpas, index.interestRanks, from, previousGPA, interestRank, out);
+		default:
+			return gpaFirst(index.previousGpas, index.interestRanks, from, previousGPA, interestRank, out);
+		}
+	}
+
+	Order choose(ProgramIndex index, int from, double previousGPA, int interestRank) {
+		double[] gpas = index.previousGpas;
+		byte[] ranks = index.interestRanks;
+		int rows = gpas.length - from;
+		if (!adaptive || rows < MIN_SAMPLED_ROWS) {
+			return Order.GPA_FIRST;
+		}
+		int stride = rows / SAMPLE_SIZE;
+		int gpaPasses = 0;
+		int interestPasses = 0;
+		for (int k = 0, i = from; k < SAMPLE_SIZE; k++, i += stride) {
+			if (previousGPA >= gpas[i]) {
+				gpaPasses++;
+			}
+			if (interestRank >= ranks[i]) {
+				interestPasses++;
+			}
+		}
+		if (Math.min(gpaPasses, interestPasses) <= SHORT_CIRCUIT_MAX_PASSES) {
+			return gpaPasses <= interestPasses ? Order.GPA_FIRST : Order.INTEREST_FIRST;
+		}
+		if (gpaPasses >= PREDICTABLE_MIN_PASSES && interestPasses >= PREDICTABLE_MIN_PASSES) {
+			return Order.GPA_FIRST;
+		}
+		return Order.FUSED;
+	}
+
+	private static int gpaFirst(double[] gpas, byte[] ranks, int from, double previousGPA, int interestRank,
+			int[] out) {
+		int count = 0;
+		for (int i = from; i < gpas.length; i++) {
+			if (previousGPA >= gpas[i] && interestRank >= ranks[i]) {
+				out[count++] = i;
+			}
+		}
+		return count;
+	}
+
+	private static int interestFirst(double[] gpas, byte[] ranks, int from, double previousGPA, int interestRank,
+			int[] out) {
+		int count = 0;
+		for (int i = from; i < gpas.length; i++) {
+			if (interestRank >= ranks[i] && previousGPA >= gpas[i]) {
+				out[count++] = i;
+			}
+		}
+		return count;
+	}
+
+	// Stores every position and advances the cursor only on a match, so there is no data-dependent branch.
+	private static int fused(double[] gpas, byte[] ranks, int from, double previousGPA, int interestRank,
+			int[] out) {
+		int count = 0;
+		for (int i = from; i < gpas.length; i++) {
+			out[count] = i;
+			count += (previousGPA >= gpas[i] ? 1 : 0) & (interestRank >= ranks[i] ? 1 : 0);
+		}
+		return count;
+	}
+}
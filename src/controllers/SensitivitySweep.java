@@ -0,0 +1,169 @@
+package controllers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import model.Program;
+
+/**
+ * Match counts for every (minimum salary, previous GPA) pair of a grid at one
+ * interest level, as if {@link RecommendationEngine#recommend} had been run for
+ * each pair.
+ * <p>
+ * The grid is filled in a single pass over the salary-sorted index: each
+ * program that passes the interest bound is dropped into the histogram cell
+ * for (how many salary thresholds it meets, first grid GPA it is eligible
+ * at), found by a moving pointer and a binary search. A suffix sum over the
+ * salary axis and a prefix sum over the GPA axis then turn the histogram into
+ * counts. A 100 x 41 grid therefore costs one scan of the catalog plus about
+ * 4,000 additions, instead of 4,100 queries.
+ */
+public final class SensitivitySweep {
+	private final RecommendationEngine engine;
+	private final double[] salaries;
+	private final double[] gpas;
+	private final Program.InterestLevel interest;
+	// counts[s][g] for salaries[s] and gpas[g].
+	private final int[][] counts;
+
+	private SensitivitySweep(RecommendationEngine engine, double[] salaries, double[] gpas,
+			Program.InterestLevel interest, int[][] counts) {
+		this.engine = engine;
+		this.salaries = salaries;
+		this.gpas = gpas;
+		this.interest = interest;
+		this.counts = counts;
+	}
+
+	static SensitivitySweep compute(RecommendationEngine engine, double[] salaryGrid, double[] gpaGrid,
+			Program.InterestLevel interest) {
+		Objects.requireNonNull(interest, "interest");
+		double[] salaries = sortedAxis("salary", salaryGrid);
+		double[] gpas = sortedAxis("GPA", gpaGrid);
+		int rank = interest.rank();
+		// histogram[k][l]: programs meeting exactly the first k salary thresholds, eligible from gpas[l] on
+		// (l == gpas.length: eligible at no grid GPA).
+		int[][] histogram = new int[salaries.length + 1][gpas.length + 1];
+
+		ProgramIndex index = engine.index();
+		CatalogDelta delta = engine.delta();
+		int met = 0;
+		for (int position = 0; position < index.size(); position++) {
+			if (index.interestRanks[position] > rank
+					|| !delta.isEmpty() && delta.isDeleted(index.catalogPosition(position))) {
+				continue;
+			}
+			// Salaries ascend along the index, so the number of thresholds met only grows.
+			double salary = index.salaries[position];
+			while (met < salaries.length && salaries[met] <= salary) {
+				met++;
+			}
+			histogram[met][firstEligible(gpas, index.previousGpas[position])]++;
+		}
+		for (Program p : delta.inserted) {
+			double salary = p.getMinIndustrySalary();
+			if (p.getAnalyticalInterestRequired().rank() > rank || Double.isNaN(salary)) {
+				continue;
+			}
+			histogram[thresholdsMet(salaries, salary)][firstEligible(gpas, p.getMinRequiredPreviousGPA())]++;
+		}
+
+		int[][] counts = new int[salaries.length][gpas.length];
+		int[] running = new int[gpas.length];
+		for (int k = salaries.length; k >= 1; k--) {
+			int cumulative = 0;
+			for (int l = 0; l < gpas.length; l++) {
+				cumulative += histogram[k][l];
+				running[l] += cumulative;
+			}
+			// A program meeting k thresholds qualifies for salaries[0..k-1].
+			System.arraycopy(running, 0, counts[k - 1], 0, gpas.length);
+		}
+		return new SensitivitySweep(engine, salaries, gpas, interest, counts);
+	}
+
+	/** The salary axis, ascending. */
+	public double[] salaries() {
+		return salaries.clone();
+	}
+
+	/** The GPA axis, ascending. */
+	public double[] gpas() {
+		return gpas.clone();
+	}
+
+	public Program.InterestLevel interest() {
+		return interest;
+	}
+
+	public int count(int salaryIndex, int gpaIndex) {
+		return counts[salaryIndex][gpaIndex];
+	}
+
+	/** A copy of the whole grid, indexed {@code [salaryIndex][gpaIndex]}. */
+	public int[][] counts() {
+		int[][] copy = new int[counts.length][];
+		for (int s = 0; s < counts.length; s++) {
+			copy[s] = counts[s].clone();
+		}
+		return copy;
+	}
+
+	/**
+	 * The programs behind one cell, in catalog order with study hours for that
+	 * cell's GPA. Runs one indexed query against the engine the sweep was
+	 * computed from.
+	 */
+	public List<RecommendationEngine.Recommendation> matches(int salaryIndex, int gpaIndex) {
+		return engine.recommend(new RecommendationEngine.Input(salaries[salaryIndex], gpas[gpaIndex], interest));
+	}
+
+	private static double[] sortedAxis(String name, double[] grid) {
+		Objects.requireNonNull(grid, name + " grid");
+		if (grid.length == 0) {
+			throw new IllegalArgumentException("The " + name + " grid must not be empty.");
+		}
+		double[] sorted = grid.clone();
+		for (double value : sorted) {
+			if (Double.isNaN(value)) {
+				throw new IllegalArgumentException("The " + name + " grid must not contain NaN.");
+			}
+		}
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	// Number of thresholds <= salary.
+	private static int thresholdsMet(double[] salaries, double salary) {
+		int low = 0;
+		int high = salaries.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (salaries[mid] <= salary) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	// First grid GPA >= required, or gpas.length if none (including a NaN requirement).
+	private static int firstEligible(double[] gpas, double required) {
+		if (Double.isNaN(required)) {
+			return gpas.length;
+		}
+		int low = 0;
+		int high = gpas.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (gpas[mid] < required) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,99 @@
+package controllers;
+
+/**
+ * Fixed-capacity min-heap of (score, catalog position) pairs held in primitive
+ * arrays. The root is the weakest kept entry, so each offer is O(log k) and
+ * anything no better than the root is rejected in O(1). Ties go to the lower
+ * catalog position, which keeps rankings deterministic.
+ */
+final class TopKHeap {
+	private final double[] scores;
+	private final int[] positions;
+	private int size;
+
+	TopKHeap(int capacity) {
+		this.scores = new double[capacity];
+		this.positions = new int[capacity];
+	}
+
+	void offer(double score, int position) {
+		if (scores.length == 0) {
+			return;
+		}
+		if (size < scores.length) {
+			scores[size] = score;
+			positions[size] = position;
+			siftUp(size++);
+		} else if (better(score, position, scores[0], positions[0])) {
+			scores[0] = score;
+			positions[0] = position;
+			siftDown(0);
+		}
+	}
+
+	boolean isFull() {
+		return size == scores.length;
+	}
+
+	/** Score of the weakest kept entry; only meaningful when the heap is not empty. */
+	double weakestScore() {
+		return scores[0];
+	}
+
+	/** Empties the heap and returns the kept positions, best first. */
+	int[] drainBestFirst() {
+		int[] ranked = new int[size];
+		for (int i = size - 1; i >= 0; i--) {
+			ranked[i] = positions[0];
+			size--;
+			scores[0] = scores[size];
+			positions[0] = positions[size];
+			siftDown(0);
+		}
+		return ranked;
+	}
+
+	private static boolean better(double score, int position, double otherScore, int otherPosition) {
+		int cmp = Double.compare(score, otherScore);
+		return cmp > 0 || (cmp == 0 && position < otherPosition);
+	}
+
+	private void siftUp(int i) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (!better(scores[parent], positions[parent], scores[i], positions[i])) {
+				return;
+			}
+			swap(i, parent);
+			i = parent;
+		}
+	}
+
+	private void siftDown(int i) {
+		while (true) {
+			int left = 2 * i + 1;
+			if (left >= size) {
+				return;
+			}
+			int weakest = left;
+			int right = left + 1;
+			if (right < size && better(scores[left], positions[left], scores[right], positions[right])) {
+				weakest = right;
+			}
+			if (!better(scores[i], positions[i], scores[weakest], positions[weakest])) {
+				return;
+			}
+			swap(i, weakest);
+			i = weakest;
+		}
+	}
+
+	private void swap(int a, int b) {
+		double score = scores[a];
+		scores[a] = scores[b];
+		scores[b] = score;
+		int position = positions[a];
+		positions[a] = positions[b];
+		positions[b] = position;
+	}
+}
@@ -0,0 +1,58 @@
+package controllers;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD version of {@link ScalarFilterKernel}. Each block compares one byte
+ * vector of interest ranks and the matching run of GPA double vectors, combines
+ * the lane masks as bits of a {@code long} and emits the set bits. Only
+ * instantiated through {@link FilterKernel#preferred()}.
+ */
+final class VectorFilterKernel implements FilterKernel {
+	private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+
+	VectorFilterKernel() {
+		// One block's mask has to fit in a long and be made of whole double vectors.
+		if (BYTES.length() > Long.SIZE || BYTES.length() % DOUBLES.length() != 0) {
+			throw new UnsupportedOperationException("Unsupported vector shape " + BYTES + " / " + DOUBLES);
+		}
+	}
+
+	@Override
+	public int filter(ProgramIndex index, int from, double previousGPA, int interestRank, int[] out) {
+		double[] gpas = index.previousGpas;
+		byte[] ranks = index.interestRanks;
+		int block = BYTES.length();
+		int doubleLanes = DOUBLES.length();
+		byte rankBound = (byte) interestRank;
+		int count = 0;
+		int i = from;
+		for (int upper = from + BYTES.loopBound(gpas.length - from); i < upper; i += block) {
+			long bits = ByteVector.fromArray(BYTES, ranks, i).compare(VectorOperators.LE, rankBound).toLong();
+			if (bits == 0L) {
+				continue;
+			}
+			long gpaBits = 0L;
+			for (int lane = 0; lane < block; lane += doubleLanes) {
+				gpaBits |= DoubleVector.fromArray(DOUBLES, gpas, i + lane)
+						.compare(VectorOperators.LE, previousGPA)
+						.toLong() << lane;
+			}
+			bits &= gpaBits;
+			while (bits != 0L) {
+				out[count++] = i + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+			}
+		}
+		for (; i < gpas.length; i++) {
+			if (previousGPA >= gpas[i] && interestRank >= ranks[i]) {
+				out[count++] = i;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,157 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable view of all programs and categories as of one committed database
+ * state. A new instance replaces the old one after every catalog write, so a
+ * reader holding a reference never observes a partially applied change.
+ */
+public final class ProgramCatalog {
+	private final long version;
+	private final long dataVersion;
+	private final List<Program> programs;
+	private final List<ProgramCategory> categories;
+	private final long builtAtNanos;
+	private final long rebuildNanos;
+	private final ProgramChange change;
+
+	ProgramCatalog(long version, long dataVersion, List<Program> programs, List<ProgramCategory> categories,
+			long builtAtNanos, long rebuildNanos) {
+		this(version, dataVersion, List.copyOf(programs), List.copyOf(categories), builtAtNanos, rebuildNanos, null);
+	}
+
+	// Takes programs and categories as given; callers pass lists nobody else can modify.
+	private ProgramCatalog(long version, long dataVersion, List<Program> programs, List<ProgramCategory> categories,
+			long builtAtNanos, long rebuildNanos, ProgramChange change) {
+		this.version = version;
+		this.dataVersion = dataVersion;
+		this.programs = programs;
+		this.categories = categories;
+		this.builtAtNanos = builtAtNanos;
+		this.rebuildNanos = rebuildNanos;
+		this.change = change;
+	}
+
+	/**
+	 * Returns the snapshot that results from applying {@code change}, which
+	 * produced database state {@code newDataVersion}, to this one, keeping
+	 * programs in name order, or {@code null} if the changed row is not where
+	 * this snapshot says it should be.
+	 * <p>
+	 * Snapshots are copy-on-write: the rows are located by binary search, but
+	 * the new snapshot is one O(n) array copy of the program list. Derived
+	 * structures such as the recommendation engine's index are patched
+	 * incrementally from {@link #getChange()} instead of being rebuilt.
+	 */
+	ProgramCatalog withChange(long newVersion, long newDataVersion, ProgramChange change, long startedNanos) {
+		List<Program> patched = new ArrayList<>(programs);
+		if (change.before() != null) {
+			int position = indexOf(patched, change.before());
+			if (position < 0) {
+				return null;
+			}
+			patched.remove(position);
+		}
+		if (change.after() != null) {
+			int position = insertionPoint(patched, change.after().getName());
+			if (position < 0) {
+				return null;
+			}
+			patched.add(position, change.after());
+		}
+		long finished = System.nanoTime();
+		return new ProgramCatalog(newVersion, newDataVersion, Collections.unmodifiableList(patched), categories,
+				finished, finished - startedNanos, change);
+	}
+
+	/**
+	 * The program write that turned version {@code getVersion() - 1} into this
+	 * snapshot, or {@code null} if it was read from the database in full.
+	 */
+	public ProgramChange getChange() {
+		return change;
+	}
+
+	/**
+	 * Orders names the way SQLite's default BINARY collation does (UTF-8 byte
+	 * order, i.e. code point order), which is the order of {@link #getPrograms()}.
+	 */
+	public static int compareNames(String a, String b) {
+		int i = 0;
+		int j = 0;
+		while (i < a.length() && j < b.length()) {
+			int ca = a.codePointAt(i);
+			int cb = b.codePointAt(j);
+			if (ca != cb) {
+				return Integer.compare(ca, cb);
+			}
+			i += Character.charCount(ca);
+			j += Character.charCount(cb);
+		}
+		return Integer.compare(a.length() - i, b.length() - j);
+	}
+
+	private static int indexOf(List<Program> programs, Program program) {
+		int position = search(programs, program.getName());
+		return position >= 0 && programs.get(position).getId() == program.getId() ? position : -1;
+	}
+
+	// Names are unique, so an exact hit means the row is already present.
+	private static int insertionPoint(List<Program> programs, String name) {
+		int position = search(programs, name);
+		return position >= 0 ? -1 : -position - 1;
+	}
+
+	private static int search(List<Program> programs, String name) {
+		int low = 0;
+		int high = programs.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = compareNames(programs.get(mid).getName(), name);
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	// Increases by one with every rebuild; handy for detecting that a derived structure is stale.
+	public long getVersion() {
+		return version;
+	}
+
+	// The database's catalog_version this snapshot reflects; orders snapshots against writes made concurrently.
+	long getDataVersion() {
+		return dataVersion;
+	}
+
+	public List<Program> getPrograms() {
+		return programs;
+	}
+
+	public List<ProgramCategory> getCategories() {
+		return categories;
+	}
+
+	public long getAgeMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - builtAtNanos);
+	}
+
+	public double getRebuildMillis() {
+		return rebuildNanos / 1_000_000.0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ProgramCatalog[v%d, %d programs, %d categories, age=%dms, rebuild=%.2fms]", version,
+				programs.size(), categories.size(), getAgeMillis(), getRebuildMillis());
+	}
+}
@@ -0,0 +1,34 @@
+package model;
+
+import java.util.Objects;
+
+/**
+ * One committed program write, as published with the catalog snapshot it
+ * produced. {@code before} is {@code null} for inserts and {@code after} is
+ * {@code null} for deletes.
+ */
+public record ProgramChange(Kind kind, Program before, Program after) {
+
+	public enum Kind {
+		INSERT, UPDATE, DELETE
+	}
+
+	public ProgramChange {
+		Objects.requireNonNull(kind, "kind");
+		if ((kind == Kind.INSERT) != (before == null) || (kind == Kind.DELETE) != (after == null)) {
+			throw new IllegalArgumentException("Program change " + kind + " has mismatched before/after rows.");
+		}
+	}
+
+	public static ProgramChange inserted(Program after) {
+		return new ProgramChange(Kind.INSERT, null, after);
+	}
+
+	public static ProgramChange updated(Program before, Program after) {
+		return new ProgramChange(Kind.UPDATE, before, after);
+	}
+
+	public static ProgramChange deleted(Program before) {
+		return new ProgramChange(Kind.DELETE, before, null);
+	}
+}
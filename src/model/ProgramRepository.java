@@ -6,8 +6,14 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import security.DatabaseManager;
 import security.User;
@@ -22,40 +28,327 @@ public class ProgramRepository {
 		return INSTANCE;
 	}
 
+	// Reads are served from this snapshot; writers swap in a fresh one after each commit.
+	private final AtomicReference<ProgramCatalog> catalog = new AtomicReference<>();
+	// Held only to compare and swap snapshots in memory, never across database I/O.
+	private final ReentrantLock publishLock = new ReentrantLock();
+	// Lets concurrent first reads share one full load instead of each running their own.
+	private final ReentrantLock loadLock = new ReentrantLock();
+	private final AtomicLong catalogVersion = new AtomicLong();
+	private final LongAdder rebuilds = new LongAdder();
+	private final LongAdder rebuildNanos = new LongAdder();
+	private final LongAdder patches = new LongAdder();
+	private final List<Consumer<ProgramCatalog>> catalogListeners = new CopyOnWriteArrayList<>();
+
 	public List<Program> getPrograms() {
+		return getCatalog().getPrograms();
+	}
+
+	public List<ProgramCategory> getCategories() {
+		return getCatalog().getCategories();
+	}
+
+	/**
+	 * Returns the current immutable catalog snapshot, loading it on first use.
+	 */
+	public ProgramCatalog getCatalog() {
+		ProgramCatalog current = catalog.get();
+		if (current != null) {
+			return current;
+		}
+		loadLock.lock();
+		try {
+			current = catalog.get();
+			if (current != null) {
+				return current;
+			}
+			ProgramCatalog loaded = publishLoaded(loadCatalog());
+			return loaded != null ? loaded : catalog.get();
+		} finally {
+			loadLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the current snapshot without loading it, or {@code null} if none
+	 * has been built yet.
+	 */
+	public ProgramCatalog peekCatalog() {
+		return catalog.get();
+	}
+
+	/**
+	 * Re-reads the catalog from the database and publishes it, for changes made
+	 * outside this repository.
+	 */
+	public ProgramCatalog reloadCatalog() {
+		return refreshCatalog();
+	}
+
+	public CatalogMetrics getCatalogMetrics() {
+		ProgramCatalog current = catalog.get();
+		long count = rebuilds.sum();
+		return new CatalogMetrics(current == null ? 0 : current.getVersion(),
+				current == null ? 0 : current.getPrograms().size(),
+				current == null ? -1 : current.getAgeMillis(),
+				current == null ? 0.0 : current.getRebuildMillis(),
+				count,
+				count == 0 ? 0.0 : rebuildNanos.sum() / 1_000_000.0 / count,
+				patches.sum());
+	}
+
+	// patches counts snapshots derived from a single program write rather than re-read in full.
+	public record CatalogMetrics(long version, int programCount, long snapshotAgeMillis, double lastRebuildMillis,
+			long rebuilds, double averageRebuildMillis, long patches) {
+	}
+
+	/**
+	 * Registers a callback invoked with each new snapshot after it has been
+	 * published. Snapshots produced by a single program write carry that write
+	 * in {@link ProgramCatalog#getChange()}, so listeners can patch derived
+	 * structures instead of rebuilding them.
+	 */
+	public void addCatalogListener(Consumer<ProgramCatalog> listener) {
+		catalogListeners.add(Objects.requireNonNull(listener, "listener"));
+	}
+
+	public void removeCatalogListener(Consumer<ProgramCatalog> listener) {
+		catalogListeners.remove(listener);
+	}
+
+	// Called after a write has committed.
+	private ProgramCatalog refreshCatalog() {
+		ProgramCatalog rebuilt;
+		try {
+			rebuilt = publishLoaded(loadCatalog());
+		} catch (IllegalStateException ex) {
+			// The write itself succeeded; drop the stale snapshot so the next read reloads it.
+			catalog.set(null);
+			throw ex;
+		}
+		if (rebuilt == null) {
+			// A snapshot at least as new was published while this one loaded.
+			return getCatalog();
+		}
+		notifyListeners(rebuilt);
+		return rebuilt;
+	}
+
+	private void notifyListeners(ProgramCatalog published) {
+		for (Consumer<ProgramCatalog> listener : catalogListeners) {
+			listener.accept(published);
+		}
+	}
+
+	@FunctionalInterface
+	private interface ProgramWrite {
+		ProgramChange execute(Connection connection) throws SQLException;
+	}
+
+	/**
+	 * Runs a program write in one immediate transaction, so the row it reads
+	 * as {@code before} is the row it changes, then patches the snapshot with
+	 * that row instead of re-reading both tables. The transaction also reads
+	 * the {@code catalog_version} its write produced: the patch is applied only
+	 * on top of the snapshot of the version just before it, and a write that
+	 * overtook an earlier one still being applied (or a change made outside
+	 * this repository) falls back to a full reload. No lock is held during
+	 * the database work.
+	 */
+	private ProgramChange writeProgram(ProgramWrite write) throws SQLException {
+		ProgramChange change;
+		long dataVersion;
+		try (Connection connection = DatabaseManager.getConnection()) {
+			execute(connection, "BEGIN IMMEDIATE");
+			boolean committed = false;
+			try {
+				change = write.execute(connection);
+				dataVersion = readDataVersion(connection);
+				execute(connection, "COMMIT");
+				committed = true;
+			} finally {
+				if (!committed) {
+					rollbackQuietly(connection);
+				}
+			}
+		}
+		if (change == null) {
+			return null;
+		}
+
+		ProgramCatalog published = null;
+		boolean reload = false;
+		publishLock.lock();
+		try {
+			ProgramCatalog current = catalog.get();
+			if (current == null || dataVersion <= current.getDataVersion()) {
+				// Nothing loaded yet, or a snapshot loaded after this write already includes it.
+			} else if (dataVersion == current.getDataVersion() + 1) {
+				published = current.withChange(catalogVersion.incrementAndGet(), dataVersion, change,
+						System.nanoTime());
+				if (published != null) {
+					patches.increment();
+					catalog.set(published);
+				} else {
+					// The snapshot disagrees with the table.
+					reload = true;
+				}
+			} else {
+				reload = true;
+			}
+		} finally {
+			publishLock.unlock();
+		}
+		if (reload) {
+			refreshCatalog();
+		} else if (published != null) {
+			notifyListeners(published);
+		}
+		return change;
+	}
+
+	private static void execute(Connection connection, String sql) throws SQLException {
+		try (Statement stmt = connection.createStatement()) {
+			stmt.executeUpdate(sql);
+		}
+	}
+
+	private static void rollbackQuietly(Connection connection) {
+		try {
+			execute(connection, "ROLLBACK");
+		} catch (SQLException ex) {
+			// Nothing to roll back if BEGIN or COMMIT already ended the transaction.
+		}
+	}
+
+	private static long readDataVersion(Connection connection) throws SQLException {
+		try (PreparedStatement stmt = connection.prepareStatement("SELECT version FROM catalog_version WHERE id = 1");
+				ResultSet rs = stmt.executeQuery()) {
+			return rs.next() ? rs.getLong(1) : 0L;
+		}
+	}
+
+	// Publishes a fully loaded snapshot unless one at least as new is already current; returns null in that case.
+	private ProgramCatalog publishLoaded(LoadedCatalog loaded) {
+		publishLock.lock();
+		try {
+			ProgramCatalog current = catalog.get();
+			if (current != null && current.getDataVersion() >= loaded.dataVersion()) {
+				return null;
+			}
+			long finished = System.nanoTime();
+			ProgramCatalog rebuilt = new ProgramCatalog(catalogVersion.incrementAndGet(), loaded.dataVersion(),
+					loaded.programs(), loaded.categories(), finished, finished - loaded.startedNanos());
+			rebuilds.increment();
+			rebuildNanos.add(finished - loaded.startedNanos());
+			catalog.set(rebuilt);
+			return rebuilt;
+		} finally {
+			publishLock.unlock();
+		}
+	}
+
+	private record LoadedCatalog(List<Program> programs, List<ProgramCategory> categories, long dataVersion,
+			long startedNanos) {
+	}
+
+	private LoadedCatalog loadCatalog() {
+		long start = System.nanoTime();
 		List<Program> programs = new ArrayList<>();
-		String sql = """
+		List<ProgramCategory> categories = new ArrayList<>();
+		long dataVersion;
+		String programSql = """
 				SELECT p.id, p.name, c.name AS category, p.min_salary, p.min_previous_gpa,
 				       p.interest_level, p.post_degree_gpa
 				FROM programs p
 				JOIN categories c ON p.category_id = c.id
 				ORDER BY p.name ASC
 				""";
-		try (Connection connection = DatabaseManager.getConnection();
-				PreparedStatement stmt = connection.prepareStatement(sql);
-				ResultSet rs = stmt.executeQuery()) {
-			while (rs.next()) {
-				programs.add(mapProgram(rs));
+		String categorySql = "SELECT id, name, description FROM categories ORDER BY name ASC";
+		try (Connection connection = DatabaseManager.getConnection()) {
+			// Read both tables and the data version in one transaction so they all come from the same state.
+			connection.setAutoCommit(false);
+			try {
+				try (PreparedStatement stmt = connection.prepareStatement(programSql);
+						ResultSet rs = stmt.executeQuery()) {
+					while (rs.next()) {
+						programs.add(mapProgram(rs));
+					}
+				}
+				try (PreparedStatement stmt = connection.prepareStatement(categorySql);
+						ResultSet rs = stmt.executeQuery()) {
+					while (rs.next()) {
+						categories.add(mapCategory(rs));
+					}
+				}
+				dataVersion = readDataVersion(connection);
+				connection.commit();
+			} finally {
+				connection.setAutoCommit(true);
 			}
 		} catch (SQLException ex) {
 			throw new IllegalStateException("Unable to load programs", ex);
 		}
-		return Collections.unmodifiableList(programs);
+		return new LoadedCatalog(programs, categories, dataVersion, start);
 	}
 
-	public List<ProgramCategory> getCategories() {
-		List<ProgramCategory> categories = new ArrayList<>();
-		String sql = "SELECT id, name, description FROM categories ORDER BY name ASC";
+	/**
+	 * Streams the programs satisfying the recommendation bounds straight from
+	 * SQLite, in the same name order as {@link #getPrograms()}. The predicates
+	 * are evaluated over the covering {@code idx_programs_eligibility} index so
+	 * only matching rows are materialized.
+	 */
+	public void streamEligiblePrograms(double minSalary, double previousGpa, Program.InterestLevel interest,
+			Consumer<Program> sink) throws SQLException {
+		String sql = """
+				SELECT p.id, p.name, c.name AS category, p.min_salary, p.min_previous_gpa,
+				       p.interest_level, p.post_degree_gpa
+				FROM programs p INDEXED BY idx_programs_eligibility
+				JOIN categories c ON p.category_id = c.id
+				WHERE p.min_salary >= ? AND p.min_previous_gpa <= ? AND upper(p.interest_level) IN (?, ?, ?, ?)
+				ORDER BY p.name ASC
+				""";
+		try (Connection connection = DatabaseManager.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
+			stmt.setDouble(1, minSalary);
+			stmt.setDouble(2, previousGpa);
+			// Always four placeholders so the statement text stays cacheable; unused slots repeat LOW.
+			Program.InterestLevel[] levels = Program.InterestLevel.values();
+			for (int i = 0; i < levels.length; i++) {
+				Program.InterestLevel level = levels[i].rank() <= interest.rank() ? levels[i] : levels[0];
+				stmt.setString(3 + i, level.name());
+			}
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					sink.accept(mapProgram(rs));
+				}
+			}
+		}
+	}
+
+	@FunctionalInterface
+	public interface RequirementVisitor {
+		void visit(double minSalary, double minPreviousGpa, Program.InterestLevel interest);
+	}
+
+	/**
+	 * Walks the filter columns of every catalog program without building
+	 * {@link Program} objects; used to gather planner statistics.
+	 */
+	public void scanRequirements(RequirementVisitor visitor) throws SQLException {
+		String sql = """
+				SELECT p.min_salary, p.min_previous_gpa, p.interest_level
+				FROM programs p INDEXED BY idx_programs_eligibility
+				JOIN categories c ON p.category_id = c.id
+				""";
 		try (Connection connection = DatabaseManager.getConnection();
 				PreparedStatement stmt = connection.prepareStatement(sql);
 				ResultSet rs = stmt.executeQuery()) {
 			while (rs.next()) {
-				categories.add(mapCategory(rs));
+				visitor.visit(rs.getDouble(1), rs.getDouble(2),
+						Program.InterestLevel.valueOf(rs.getString(3).toUpperCase()));
 			}
-		} catch (SQLException ex) {
-			throw new IllegalStateException("Unable to load categories", ex);
 		}
-		return Collections.unmodifiableList(categories);
 	}
 
 	public ProgramCategory addCategory(User actor, String name, String description) throws SQLException {
@@ -63,6 +356,7 @@ public class ProgramRepository {
 
 		validation.Validator.validateCategory(name, description);
 		String sql = "INSERT INTO categories(name, description) VALUES (?, ?)";
+		ProgramCategory category = null;
 		try (Connection connection = DatabaseManager.getConnection();
 				PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 			stmt.setString(1, name.trim());
@@ -71,12 +365,17 @@ public class ProgramRepository {
 
 			try (ResultSet keys = stmt.getGeneratedKeys()) {
 				if (keys.next()) {
-					return new ProgramCategory(keys.getInt(1), name.trim(),
+					category = new ProgramCategory(keys.getInt(1), name.trim(),
 							description == null ? "" : description.trim());
 				}
 			}
 		}
-		throw new SQLException("Unable to create category");
+		// Refreshed only once the write connection is back in the pool, since the rebuild borrows one of its own.
+		refreshCatalog();
+		if (category == null) {
+			throw new SQLException("Unable to create category");
+		}
+		return category;
 	}
 
 	public void deleteCategory(User actor, int categoryId) throws SQLException {
@@ -87,6 +386,7 @@ public class ProgramRepository {
 			stmt.setInt(1, categoryId);
 			stmt.executeUpdate();
 		}
+		refreshCatalog();
 	}
 
 	public ProgramCategory findCategoryByName(String name) throws SQLException {
@@ -117,21 +417,29 @@ public class ProgramRepository {
 				INSERT INTO programs(name, category_id, min_salary, min_previous_gpa, interest_level, post_degree_gpa)
 				VALUES (?, ?, ?, ?, ?, ?)
 				""";
-		try (Connection connection = DatabaseManager.getConnection();
-				PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-			stmt.setString(1, name.trim());
-			stmt.setInt(2, categoryId);
-			stmt.setDouble(3, minSalary);
-			stmt.setDouble(4, minPrevGpa);
-			stmt.setString(5, interest.name());
-			stmt.setDouble(6, postDegreeGpa);
-			stmt.executeUpdate();
+		try {
+			return writeProgram(connection -> {
+				int programId = -1;
+				try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+					stmt.setString(1, name.trim());
+					stmt.setInt(2, categoryId);
+					stmt.setDouble(3, minSalary);
+					stmt.setDouble(4, minPrevGpa);
+					stmt.setString(5, interest.name());
+					stmt.setDouble(6, postDegreeGpa);
+					stmt.executeUpdate();
 
-			try (ResultSet keys = stmt.getGeneratedKeys()) {
-				if (keys.next()) {
-					return fetchProgramById(keys.getInt(1));
+					try (ResultSet keys = stmt.getGeneratedKeys()) {
+						if (keys.next()) {
+							programId = keys.getInt(1);
+						}
+					}
 				}
-			}
+				if (programId < 0) {
+					throw new SQLException("Unable to create program");
+				}
+				return ProgramChange.inserted(fetchProgramById(connection, programId));
+			}).after();
 		} catch (SQLException ex) {
 			if (isUniqueConstraintViolation(ex)) {
 				//error to uniqe constraint
@@ -139,7 +447,6 @@ public class ProgramRepository {
 			}
 			throw ex;
 		}
-		throw new SQLException("Unable to create program");
 	}
 
 	private static boolean isUniqueConstraintViolation(SQLException ex) {
@@ -150,11 +457,13 @@ public class ProgramRepository {
 	public void deleteProgram(User actor, int programId) throws SQLException {
 		requireAdmin(actor);
 		String sql = "DELETE FROM programs WHERE id = ?";
-		try (Connection connection = DatabaseManager.getConnection();
-				PreparedStatement stmt = connection.prepareStatement(sql)) {
-			stmt.setInt(1, programId);
-			stmt.executeUpdate();
-		}
+		writeProgram(connection -> {
+			Program before = findProgramById(connection, programId);
+			try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+				stmt.setInt(1, programId);
+				return stmt.executeUpdate() > 0 && before != null ? ProgramChange.deleted(before) : null;
+			}
+		});
 	}
 
 	public void updateProgram(User actor, int programId, String name, int categoryId, double minSalary,
@@ -175,20 +484,39 @@ public class ProgramRepository {
 				SET name = ?, category_id = ?, min_salary = ?, min_previous_gpa = ?, interest_level = ?, post_degree_gpa = ?
 				WHERE id = ?
 				""";
-		try (Connection connection = DatabaseManager.getConnection();
-				PreparedStatement stmt = connection.prepareStatement(sql)) {
-			stmt.setString(1, name.trim());
-			stmt.setInt(2, categoryId);
-			stmt.setDouble(3, minSalary);
-			stmt.setDouble(4, minPrevGpa);
-			stmt.setString(5, interest.name());
-			stmt.setDouble(6, postDegreeGpa);
-			stmt.setInt(7, programId);
-			stmt.executeUpdate();
-		}
+		writeProgram(connection -> {
+			Program before = findProgramById(connection, programId);
+			try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+				stmt.setString(1, name.trim());
+				stmt.setInt(2, categoryId);
+				stmt.setDouble(3, minSalary);
+				stmt.setDouble(4, minPrevGpa);
+				stmt.setString(5, interest.name());
+				stmt.setDouble(6, postDegreeGpa);
+				stmt.setInt(7, programId);
+				if (stmt.executeUpdate() == 0 || before == null) {
+					return null;
+				}
+			}
+			return ProgramChange.updated(before, fetchProgramById(connection, programId));
+		});
 	}
 
 	private Program fetchProgramById(int programId) throws SQLException {
+		try (Connection connection = DatabaseManager.getConnection()) {
+			return fetchProgramById(connection, programId);
+		}
+	}
+
+	private Program fetchProgramById(Connection connection, int programId) throws SQLException {
+		Program program = findProgramById(connection, programId);
+		if (program == null) {
+			throw new SQLException("Program not found after insert");
+		}
+		return program;
+	}
+
+	private Program findProgramById(Connection connection, int programId) throws SQLException {
 		String sql = """
 				SELECT p.id, p.name, c.name AS category, p.min_salary, p.min_previous_gpa,
 				       p.interest_level, p.post_degree_gpa
@@ -196,8 +524,7 @@ public class ProgramRepository {
 				JOIN categories c ON p.category_id = c.id
 				WHERE p.id = ?
 				""";
-		try (Connection connection = DatabaseManager.getConnection();
-				PreparedStatement stmt = connection.prepareStatement(sql)) {
+		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
 			stmt.setInt(1, programId);
 			try (ResultSet rs = stmt.executeQuery()) {
 				if (rs.next()) {
@@ -205,7 +532,7 @@ public class ProgramRepository {
 				}
 			}
 		}
-		throw new SQLException("Program not found after insert");
+		return null;
 	}
 
 	private Program mapProgram(ResultSet rs) throws SQLException {
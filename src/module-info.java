@@ -7,4 +7,5 @@
 module Degree {
 	requires java.desktop;
 	requires java.sql;
+	requires static jdk.incubator.vector;
 }
\ No newline at end of file
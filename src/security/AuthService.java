@@ -13,6 +13,7 @@ import validation.Validator;
 //Provide registration and authentication workflows backed by the embedded DB
 
 public class AuthService {
+	private static final System.Logger LOG = System.getLogger(AuthService.class.getName());
 
 	public User findUserByName(String name) throws SQLException {
 		String sql = "SELECT id , username , role FROM users WHERE lower(username) = lower(?)";
@@ -39,7 +40,7 @@ public class AuthService {
 		}
 
 		String salt = PasswordHasher.generateSalt();
-		String hash = PasswordHasher.hash(password, salt);
+		String hash = hashing().run(() -> PasswordHasher.hash(password, salt));
 
 		try (Connection connection = DatabaseManager.getConnection();
 				PreparedStatement statement = connection.prepareStatement(
@@ -63,37 +64,107 @@ public class AuthService {
 		throw new SQLException("Unable to create user record");
 	}
 
+	/**
+	 * Checks {@code password} against the stored hash. Hashing runs on the
+	 * shared bounded executor (see {@link HashingExecutor}), and no database
+	 * connection is held while it waits; when the executor is saturated this
+	 * throws {@link AuthenticationBusyException} instead of queueing
+	 * indefinitely.
+	 */
 	public Optional<User> authenticate(String username, char[] password) throws SQLException {
 		String errors = Validator.validateLoginCredentials(username, password);
 		if (!errors.isEmpty()) {
 			return Optional.empty();
 		}
-	
+
+		User user;
+		String storedHash;
+		String salt;
 		try (Connection connection = DatabaseManager.getConnection();
-			 PreparedStatement statement = connection.prepareStatement(
-					 "SELECT id, username, password_hash, salt, role FROM users WHERE lower(username) = lower(?)")) {
-	
+				PreparedStatement statement = connection.prepareStatement(
+						"SELECT id, username, password_hash, salt, role FROM users WHERE lower(username) = lower(?)")) {
 			statement.setString(1, username);
-	
 			try (ResultSet resultSet = statement.executeQuery()) {
 				if (!resultSet.next()) {
-					return Optional.empty();
+					user = null;
+					storedHash = null;
+					salt = null;
+				} else {
+					user = mapUser(resultSet);
+					storedHash = resultSet.getString("password_hash");
+					salt = resultSet.getString("salt");
 				}
-	
-				boolean matches = PasswordHasher.matches(password,
-						resultSet.getString("salt"),
-						resultSet.getString("password_hash"));
-	
-				if (!matches) {
-					System.out.println("Wrong username or password.");
-					return Optional.empty();
-				}
-	
-				return Optional.of(mapUser(resultSet));
 			}
 		}
+
+		if (user == null) {
+			// Take as long as a wrong password so the response time does not reveal which usernames exist.
+			hashing().run(() -> {
+				PasswordHasher.simulateVerification(password);
+				return null;
+			});
+			return Optional.empty();
+		}
+
+		boolean matches = hashing().run(() -> PasswordHasher.matches(password, salt, storedHash));
+
+		if (!matches) {
+			return Optional.empty();
+		}
+
+		if (PasswordHasher.needsRehash(storedHash)) {
+			rehash(user, password, storedHash);
+		}
+		return Optional.of(user);
+	}
+
+	/**
+	 * Calibrates password hashing now (see {@link PasswordHasher}) so the first
+	 * login does not pay for it. Returns the PBKDF2 iteration count in use.
+	 */
+	public static int initializeHashing() {
+		return PasswordHasher.iterations();
+	}
+
+	public static HashingStats getHashingStats() {
+		return Hashing.EXECUTOR.stats();
+	}
+
+	// Created on first use, like the calibration, and shared by every AuthService.
+	private static final class Hashing {
+		private static final HashingExecutor EXECUTOR = new HashingExecutor(HashingExecutor.Config.fromSystemProperties());
+	}
+
+	private static HashingExecutor hashing() {
+		return Hashing.EXECUTOR;
+	}
+
+	// Upgrades the stored hash to the current format and cost with a fresh salt. The update only applies if the
+	// hash is unchanged, so a concurrent password change wins; failing to upgrade does not fail the login.
+	private static void rehash(User user, char[] password, String oldHash) {
+		String salt = PasswordHasher.generateSalt();
+		String hash;
+		try {
+			hash = hashing().run(() -> PasswordHasher.hash(password, salt));
+		} catch (AuthenticationBusyException ex) {
+			LOG.log(System.Logger.Level.DEBUG, "Skipped password hash upgrade for user " + user.getUsername()
+					+ ": " + ex.getMessage());
+			return;
+		}
+		try (Connection connection = DatabaseManager.getConnection();
+				PreparedStatement statement = connection.prepareStatement(
+						"UPDATE users SET password_hash = ?, salt = ? WHERE id = ? AND password_hash = ?")) {
+			statement.setString(1, hash);
+			statement.setString(2, salt);
+			statement.setInt(3, user.getId());
+			statement.setString(4, oldHash);
+			if (statement.executeUpdate() == 1) {
+				LOG.log(System.Logger.Level.INFO, "Upgraded password hash for user " + user.getUsername());
+			}
+		} catch (SQLException ex) {
+			LOG.log(System.Logger.Level.WARNING, "Unable to upgrade password hash for user " + user.getUsername(), ex);
+		}
 	}
-	
 
 	private static User mapUser(ResultSet resultSet) throws SQLException {
 		int id = resultSet.getInt("id");
@@ -0,0 +1,14 @@
+package security;
+
+/**
+ * Thrown when a password could not be checked or hashed because the hashing
+ * executor is saturated or the request waited too long for it. The attempt
+ * did not reach a verdict and can be retried.
+ */
+public class AuthenticationBusyException extends IllegalStateException {
+	private static final long serialVersionUID = 1L;
+
+	public AuthenticationBusyException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,386 @@
+package security;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded pool of physical SQLite connections. Callers receive a lightweight
+ * handle whose {@code close()} hands the connection back to the pool instead of
+ * closing it, so existing try-with-resources code keeps working unchanged.
+ * <p>
+ * Leak detection only reports: a handle held past
+ * {@code degree.db.pool.leakThresholdMs} is logged and counted, but its
+ * connection is never taken back, because the holder may still be using it.
+ * A handle that is never closed therefore occupies its slot until the pool
+ * shuts down, and enough of them will make every borrow time out.
+ */
+final class ConnectionPool implements AutoCloseable {
+	private static final System.Logger LOG = System.getLogger(ConnectionPool.class.getName());
+
+	@FunctionalInterface
+	interface ConnectionFactory {
+		Connection open() throws SQLException;
+	}
+
+	record Config(int maxSize, int minIdle, long borrowTimeoutMillis, long idleTimeoutMillis,
+			long leakThresholdMillis, long housekeepingIntervalMillis, boolean captureBorrowSite,
+			int statementCacheSize) {
+
+		Config {
+			if (maxSize < 1) {
+				throw new IllegalArgumentException("Pool size must be at least 1.");
+			}
+			if (minIdle < 0 || minIdle > maxSize) {
+				throw new IllegalArgumentException("Minimum idle connections must be between 0 and the pool size.");
+			}
+		}
+
+		static Config fromSystemProperties() {
+			return new Config(
+					Integer.getInteger("degree.db.pool.maxSize", 4),
+					Integer.getInteger("degree.db.pool.minIdle", 1),
+					Long.getLong("degree.db.pool.borrowTimeoutMs", 5_000L),
+					Long.getLong("degree.db.pool.idleTimeoutMs", 60_000L),
+					Long.getLong("degree.db.pool.leakThresholdMs", 30_000L),
+					Long.getLong("degree.db.pool.housekeepingMs", 10_000L),
+					Boolean.getBoolean("degree.db.pool.captureBorrowSite"),
+					Integer.getInteger("degree.db.statementCache.size", 32));
+		}
+	}
+
+	private final ConnectionFactory factory;
+	private final Config config;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition available = lock.newCondition();
+	private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+	private final Set<Lease> leased = ConcurrentHashMap.newKeySet();
+	private int total;
+	private boolean closed;
+
+	private final LongAdder borrows = new LongAdder();
+	private final LongAdder borrowWaitNanos = new LongAdder();
+	private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+	private final LongAdder timeouts = new LongAdder();
+	private final LongAdder leaks = new LongAdder();
+	private final LongAdder created = new LongAdder();
+	private final LongAdder evicted = new LongAdder();
+	private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+
+	private final ScheduledExecutorService housekeeper;
+
+	ConnectionPool(ConnectionFactory factory, Config config) {
+		this.factory = factory;
+		this.config = config;
+		this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "db-pool-housekeeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = config.housekeepingIntervalMillis();
+		housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	Connection borrow() throws SQLException {
+		long start = System.nanoTime();
+		PooledConnection pooled = acquire(start);
+		long waited = System.nanoTime() - start;
+		borrows.increment();
+		borrowWaitNanos.add(waited);
+		maxBorrowWaitNanos.accumulateAndGet(waited, Math::max);
+
+		Lease lease = new Lease(pooled);
+		leased.add(lease);
+		return lease.proxy;
+	}
+
+	private PooledConnection acquire(long start) throws SQLException {
+		long remaining = TimeUnit.MILLISECONDS.toNanos(config.borrowTimeoutMillis());
+		lock.lock();
+		try {
+			while (true) {
+				if (closed) {
+					throw new SQLException("Connection pool is closed");
+				}
+				PooledConnection pooled = idle.pollFirst();
+				if (pooled != null) {
+					if (pooled.isUsable()) {
+						return pooled;
+					}
+					discard(pooled);
+					continue;
+				}
+				if (total < config.maxSize()) {
+					total++;
+					break;
+				}
+				if (remaining <= 0L) {
+					timeouts.increment();
+					throw new SQLTimeoutException(String.format(
+							"Timed out after %d ms waiting for a database connection (pool size %d)",
+							TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), config.maxSize()));
+				}
+				try {
+					remaining = available.awaitNanos(remaining);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new SQLException("Interrupted while waiting for a database connection", ex);
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		// A slot was reserved above; open the physical connection outside the lock.
+		try {
+			PooledConnection pooled = new PooledConnection(factory.open(),
+					new StatementCache(config.statementCacheSize(), statementCounters));
+			created.increment();
+			return pooled;
+		} catch (SQLException | RuntimeException ex) {
+			lock.lock();
+			try {
+				total--;
+				available.signal();
+			} finally {
+				lock.unlock();
+			}
+			throw ex;
+		}
+	}
+
+	private void release(Lease lease) {
+		leased.remove(lease);
+		PooledConnection pooled = lease.pooled;
+		boolean reusable = pooled.reset();
+		lock.lock();
+		try {
+			if (closed || !reusable) {
+				discard(pooled);
+			} else {
+				pooled.lastUsedNanos = System.nanoTime();
+				idle.addFirst(pooled);
+			}
+			available.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Caller must hold the lock.
+	private void discard(PooledConnection pooled) {
+		total--;
+		pooled.closeQuietly();
+	}
+
+	private void housekeep() {
+		try {
+			evictIdle();
+			detectLeaks();
+		} catch (RuntimeException ex) {
+			LOG.log(System.Logger.Level.WARNING, "Connection pool housekeeping failed", ex);
+		}
+	}
+
+	private void evictIdle() {
+		long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(config.idleTimeoutMillis());
+		List<PooledConnection> stale = new ArrayList<>();
+		lock.lock();
+		try {
+			// Least recently used connections sit at the tail of the deque.
+			Iterator<PooledConnection> it = idle.descendingIterator();
+			while (it.hasNext() && idle.size() > config.minIdle()) {
+				PooledConnection pooled = it.next();
+				if (pooled.lastUsedNanos - cutoff < 0L) {
+					it.remove();
+					total--;
+					stale.add(pooled);
+				}
+			}
+			if (!stale.isEmpty()) {
+				available.signalAll();
+			}
+		} finally {
+			lock.unlock();
+		}
+		for (PooledConnection pooled : stale) {
+			pooled.closeQuietly();
+			evicted.increment();
+		}
+	}
+
+	private void detectLeaks() {
+		long threshold = TimeUnit.MILLISECONDS.toNanos(config.leakThresholdMillis());
+		long now = System.nanoTime();
+		for (Lease lease : leased) {
+			if (!lease.leakReported && now - lease.borrowedAtNanos > threshold) {
+				lease.leakReported = true;
+				leaks.increment();
+				String message = "Database connection held for more than " + config.leakThresholdMillis()
+						+ " ms without being closed";
+				if (lease.borrowSite != null) {
+					LOG.log(System.Logger.Level.WARNING, message + "; borrowed at:", lease.borrowSite);
+				} else {
+					LOG.log(System.Logger.Level.WARNING, message
+							+ " (set -Ddegree.db.pool.captureBorrowSite=true to record the borrow site)");
+				}
+			}
+		}
+	}
+
+	PoolStats stats() {
+		int idleCount;
+		int totalCount;
+		lock.lock();
+		try {
+			idleCount = idle.size();
+			totalCount = total;
+		} finally {
+			lock.unlock();
+		}
+		return new PoolStats(leased.size(), idleCount, totalCount, config.maxSize(), borrows.sum(),
+				borrowWaitNanos.sum(), maxBorrowWaitNanos.get(), timeouts.sum(), leaks.sum(), created.sum(),
+				evicted.sum(), statementCounters.hits.sum(), statementCounters.misses.sum(),
+				statementCounters.evictions.sum());
+	}
+
+	@Override
+	public void close() {
+		housekeeper.shutdownNow();
+		lock.lock();
+		try {
+			closed = true;
+			PooledConnection pooled;
+			while ((pooled = idle.pollFirst()) != null) {
+				discard(pooled);
+			}
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static final class PooledConnection {
+		private final Connection physical;
+		private final StatementCache statements;
+		private volatile long lastUsedNanos = System.nanoTime();
+
+		PooledConnection(Connection physical, StatementCache statements) {
+			this.physical = physical;
+			this.statements = statements;
+		}
+
+		boolean isUsable() {
+			try {
+				return !physical.isClosed();
+			} catch (SQLException ex) {
+				return false;
+			}
+		}
+
+		// Undo any per-lease state so the next borrower starts from a clean connection.
+		boolean reset() {
+			statements.releaseAll();
+			try {
+				if (physical.isClosed()) {
+					return false;
+				}
+				if (!physical.getAutoCommit()) {
+					physical.rollback();
+					physical.setAutoCommit(true);
+				}
+				physical.clearWarnings();
+				return true;
+			} catch (SQLException ex) {
+				return false;
+			}
+		}
+
+		void closeQuietly() {
+			statements.clear();
+			try {
+				physical.close();
+			} catch (SQLException ex) {
+				LOG.log(System.Logger.Level.DEBUG, "Failed to close pooled connection", ex);
+			}
+		}
+	}
+
+	// One borrow of a pooled connection; the handle is dead once closed.
+	private final class Lease implements InvocationHandler {
+		private final PooledConnection pooled;
+		private final Connection proxy;
+		private final long borrowedAtNanos = System.nanoTime();
+		// Capturing a stack trace per borrow is costly, so it is opt-in for leak hunting.
+		private final Throwable borrowSite = config.captureBorrowSite()
+				? new Throwable("Connection borrow site")
+				: null;
+		private final AtomicBoolean released = new AtomicBoolean();
+		private volatile boolean leakReported;
+
+		Lease(PooledConnection pooled) {
+			this.pooled = pooled;
+			this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, this);
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				// Two threads closing the same handle must not return the connection twice.
+				if (released.compareAndSet(false, true)) {
+					release(this);
+				}
+				return null;
+			case "isClosed":
+				return released.get() || pooled.physical.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "PooledConnection[" + pooled.physical + "]";
+			default:
+				break;
+			}
+			if (released.get()) {
+				throw new SQLException("Connection has already been returned to the pool");
+			}
+			if ("prepareStatement".equals(method.getName())) {
+				if (args.length == 1) {
+					return pooled.statements.prepare(pooled.physical, (Connection) proxy, (String) args[0],
+							Statement.NO_GENERATED_KEYS);
+				}
+				if (args.length == 2 && args[1] instanceof Integer keys) {
+					return pooled.statements.prepare(pooled.physical, (Connection) proxy, (String) args[0], keys);
+				}
+			}
+			try {
+				return method.invoke(pooled.physical, args);
+			} catch (InvocationTargetException ex) {
+				throw ex.getCause();
+			}
+		}
+	}
+}
@@ -1,19 +1,105 @@
 package security;
 
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
 
 // Handles initialization n access to the embedded SQLite database
 
 public final class DatabaseManager {
 	private static final String DATA_DIRECTORY = "data";
 	private static final String DATABASE_FILE = "users.db";
-	private static final String JDBC_URL = "jdbc:sqlite:" + DATA_DIRECTORY + "/" + DATABASE_FILE;
+	// Overridable so benchmarks and tooling can point the app at a generated database
+	private static final Path DATABASE_PATH = Path.of(
+			System.getProperty("degree.db.path", DATA_DIRECTORY + "/" + DATABASE_FILE));
+	private static final String JDBC_URL = "jdbc:sqlite:" + DATABASE_PATH;
 
-	public static Connection getConnection() throws SQLException {
+	private DatabaseManager() {
+	}
+
+	// Created on first use so merely loading the class never touches the database. A failed initialization leaves
+	// it null, so the next caller retries instead of the class being unusable for the rest of the JVM's life.
+	private static volatile ConnectionPool pool;
+	private static final ReentrantLock INIT_LOCK = new ReentrantLock();
+
+	private static ConnectionPool pool() throws SQLException {
+		ConnectionPool current = pool;
+		if (current != null) {
+			return current;
+		}
+		INIT_LOCK.lock();
+		try {
+			if (pool == null) {
+				pool = createPool();
+			}
+			return pool;
+		} finally {
+			INIT_LOCK.unlock();
+		}
+	}
+
+	private static ConnectionPool createPool() throws SQLException {
+		try {
+			Path directory = DATABASE_PATH.toAbsolutePath().getParent();
+			if (directory != null) {
+				Files.createDirectories(directory);
+			}
+		} catch (IOException ex) {
+			throw new SQLException("Unable to create data directory", ex);
+		}
+		SqliteProfile profile = SqliteProfile.fromSystemProperties();
+		ConnectionPool created = new ConnectionPool(() -> openConnection(profile),
+				ConnectionPool.Config.fromSystemProperties());
+		// A failed migration is reported as is (SchemaMigrator names the version) and re-attempted by the next call.
+		try (Connection connection = created.borrow()) {
+			SchemaMigrator.migrate(connection);
+			profile.selfCheck(connection);
+		} catch (SQLException ex) {
+			created.close();
+			throw ex;
+		} catch (RuntimeException ex) {
+			created.close();
+			throw new SQLException("Unable to initialize database schema", ex);
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread(created::close, "db-pool-shutdown"));
+		return created;
+	}
+
+	private static Connection openConnection(SqliteProfile profile) throws SQLException {
 		Connection connection = DriverManager.getConnection(JDBC_URL);
+		try {
+			profile.apply(connection);
+		} catch (SQLException ex) {
+			connection.close();
+			throw ex;
+		}
 		return connection;
 	}
+
+	/**
+	 * Borrows a connection from the shared pool, creating the pool and running
+	 * pending schema migrations first if no earlier call has succeeded. Closing
+	 * the returned connection returns it to the pool.
+	 */
+	public static Connection getConnection() throws SQLException {
+		return pool().borrow();
+	}
+
+	/**
+	 * Creates the pool and runs pending schema migrations. Called once at
+	 * startup; later calls are cheap. If it fails, the next call (or the next
+	 * {@link #getConnection()}) tries again.
+	 */
+	public static void initialize() throws SQLException {
+		pool();
+	}
+
+	public static PoolStats getPoolStats() throws SQLException {
+		return pool().stats();
+	}
 }
@@ -0,0 +1,146 @@
+package security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a small fixed set of threads with a bounded queue.
+ * Key stretching is CPU-bound by design, so during a login burst letting
+ * every caller hash on its own thread only slows all of them down together;
+ * here at most {@code threads} hashes run at once, at most
+ * {@code queueCapacity} more wait, and anything beyond that is rejected
+ * immediately with {@link AuthenticationBusyException}. A caller also gives up
+ * after {@code waitTimeoutMillis}, so the time to an answer stays bounded.
+ */
+final class HashingExecutor implements AutoCloseable {
+
+	record Config(int threads, int queueCapacity, long waitTimeoutMillis) {
+
+		Config {
+			if (threads < 1) {
+				throw new IllegalArgumentException("Hashing threads must be at least 1.");
+			}
+			if (queueCapacity < 1) {
+				throw new IllegalArgumentException("Hashing queue capacity must be at least 1.");
+			}
+			if (waitTimeoutMillis < 1) {
+				throw new IllegalArgumentException("Hashing wait timeout must be positive.");
+			}
+		}
+
+		static Config fromSystemProperties() {
+			// Half the cores by default, leaving the rest for the UI and recommendation queries.
+			int threads = Integer.getInteger("degree.auth.hashThreads",
+					Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+			return new Config(threads,
+					Integer.getInteger("degree.auth.hashQueue", threads * 8),
+					Long.getLong("degree.auth.hashTimeoutMs", 10_000L));
+		}
+	}
+
+	private final Config config;
+	private final ThreadPoolExecutor executor;
+
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder timedOut = new LongAdder();
+	private final LongAdder cancelled = new LongAdder();
+	private final LongAdder queueWaitNanos = new LongAdder();
+	private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+	private final LongAdder hashNanos = new LongAdder();
+	private final AtomicLong maxHashNanos = new AtomicLong();
+
+	HashingExecutor(Config config) {
+		this.config = config;
+		AtomicInteger count = new AtomicInteger();
+		ThreadFactory factory = r -> {
+			Thread thread = new Thread(r, "password-hasher-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		this.executor = new ThreadPoolExecutor(config.threads(), config.threads(), 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(config.queueCapacity()), factory, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	/**
+	 * Runs {@code task} on a hashing thread and waits for its result. Throws
+	 * {@link AuthenticationBusyException} if the queue is full, the wait times
+	 * out or the caller is interrupted; exceptions from the task are rethrown.
+	 */
+	<T> T run(Supplier<T> task) {
+		long submitted = System.nanoTime();
+		Future<T> future;
+		try {
+			future = executor.submit(() -> {
+				long started = System.nanoTime();
+				try {
+					return task.get();
+				} finally {
+					long finished = System.nanoTime();
+					record(started - submitted, finished - started);
+				}
+			});
+		} catch (RejectedExecutionException ex) {
+			rejected.increment();
+			throw new AuthenticationBusyException("Too many sign-in requests right now. Please try again in a moment.");
+		}
+		try {
+			return future.get(config.waitTimeoutMillis(), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException ex) {
+			abandon(future);
+			timedOut.increment();
+			throw new AuthenticationBusyException("Signing in is taking longer than usual. Please try again.");
+		} catch (InterruptedException ex) {
+			abandon(future);
+			Thread.currentThread().interrupt();
+			throw new AuthenticationBusyException("Interrupted while waiting for password verification.");
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			throw new IllegalStateException("Password hashing failed", cause);
+		}
+	}
+
+	// A running hash cannot be interrupted, but a queued one is cancelled and taken out of the queue right away;
+	// the pool would otherwise only drop it on dequeue, and until then it would count against the queue limit.
+	private void abandon(Future<?> future) {
+		future.cancel(true);
+		if (executor.remove((Runnable) future)) {
+			cancelled.increment();
+		}
+	}
+
+	private void record(long waited, long hashed) {
+		completed.increment();
+		queueWaitNanos.add(waited);
+		maxQueueWaitNanos.accumulateAndGet(waited, Math::max);
+		hashNanos.add(hashed);
+		maxHashNanos.accumulateAndGet(hashed, Math::max);
+	}
+
+	HashingStats stats() {
+		return new HashingStats(config.threads(), executor.getActiveCount(), executor.getQueue().size(),
+				config.queueCapacity(), completed.sum(), rejected.sum(), timedOut.sum(), cancelled.sum(),
+				queueWaitNanos.sum(), maxQueueWaitNanos.get(), hashNanos.sum(), maxHashNanos.get());
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,38 @@
+package security;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-time counters for the password hashing executor. Queue wait is
+ * the time a verification spent waiting for a hashing thread; hash time is
+ * how long it then ran. {@code cancelled} counts timed-out requests that were
+ * taken out of the queue before they started, so {@code queued} is only work
+ * someone is still waiting for.
+ */
+public record HashingStats(int threads, int active, int queued, int queueCapacity, long completed, long rejected,
+		long timedOut, long cancelled, long queueWaitNanos, long maxQueueWaitNanos, long hashNanos, long maxHashNanos) {
+
+	public double averageQueueWaitMillis() {
+		return completed == 0 ? 0.0 : (double) queueWaitNanos / completed / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	public double maxQueueWaitMillis() {
+		return (double) maxQueueWaitNanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	public double averageHashMillis() {
+		return completed == 0 ? 0.0 : (double) hashNanos / completed / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	public double maxHashMillis() {
+		return (double) maxHashNanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"threads=%d active=%d queued=%d/%d completed=%d rejected=%d timedOut=%d cancelled=%d avgWait=%.3fms maxWait=%.3fms avgHash=%.3fms maxHash=%.3fms",
+				threads, active, queued, queueCapacity, completed, rejected, timedOut, cancelled, averageQueueWaitMillis(),
+				maxQueueWaitMillis(), averageHashMillis(), maxHashMillis());
+	}
+}
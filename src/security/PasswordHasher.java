@@ -4,15 +4,100 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Base64;
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Password hashing with PBKDF2-HMAC-SHA256. Stored hashes describe their own
+ * parameters as {@code $pbkdf2-sha256$i=<iterations>$<base64 key>}; the salt
+ * stays in its own column. A value without the leading {@code $} is the
+ * original single SHA-256 over salt and password, which still verifies so
+ * existing accounts can sign in and be upgraded (see {@link #needsRehash}).
+ * <p>
+ * The iteration count comes from {@code degree.auth.iterations} if set, and is
+ * otherwise calibrated once per JVM so that one verification takes about
+ * {@code degree.auth.targetMs} (default 200) on this machine. Either way it is
+ * never fewer than {@link #MIN_ITERATIONS}, unless
+ * {@code degree.auth.insecureIterationsForTesting} is also set.
+ */
 final class PasswordHasher {
+	private static final System.Logger LOG = System.getLogger(PasswordHasher.class.getName());
 	private static final SecureRandom RANDOM = new SecureRandom();
 
+	private static final String PBKDF2_PREFIX = "$pbkdf2-sha256$i=";
+	private static final int KEY_BITS = 256;
+	static final int MIN_ITERATIONS = 100_000;
+	private static final int MAX_ITERATIONS = 10_000_000;
+	private static final long CALIBRATION_BUDGET_NANOS = 300_000_000L;
+	// Calibration differs a little between restarts; only a clearly weaker stored hash is worth rehashing.
+	private static final double REHASH_BELOW = 0.8;
+
 	private PasswordHasher() {
 	}
 
+	// Calibrated on first use; AuthService.initializeHashing() moves that to startup.
+	private static final class Parameters {
+		private static final int ITERATIONS = chooseIterations();
+
+		private static int chooseIterations() {
+			Integer fixed = Integer.getInteger("degree.auth.iterations");
+			if (fixed != null) {
+				if (fixed < 1) {
+					throw new IllegalArgumentException("degree.auth.iterations must be positive.");
+				}
+				// Only tests may trade away key stretching for speed, and they have to ask for it by name.
+				if (fixed < MIN_ITERATIONS && !Boolean.getBoolean("degree.auth.insecureIterationsForTesting")) {
+					LOG.log(System.Logger.Level.WARNING, "degree.auth.iterations=" + fixed + " is below the minimum; using "
+							+ MIN_ITERATIONS + " (set degree.auth.insecureIterationsForTesting=true to allow it in tests)");
+					fixed = MIN_ITERATIONS;
+				}
+				LOG.log(System.Logger.Level.INFO, "Password hashing uses " + fixed + " PBKDF2 iterations (configured)");
+				return fixed;
+			}
+			Duration target = Duration.ofMillis(Long.getLong("degree.auth.targetMs", 200L));
+			long started = System.nanoTime();
+			int iterations = calibrate(target);
+			LOG.log(System.Logger.Level.INFO, String.format(
+					"Password hashing uses %d PBKDF2 iterations (target %d ms, calibrated in %.0f ms)", iterations,
+					target.toMillis(), (System.nanoTime() - started) / 1_000_000.0));
+			return iterations;
+		}
+	}
+
+	static int iterations() {
+		return Parameters.ITERATIONS;
+	}
+
+	/**
+	 * Iteration count that makes one PBKDF2 verification take about
+	 * {@code target} here, rounded to a thousand and clamped to
+	 * [{@link #MIN_ITERATIONS}, 10,000,000].
+	 */
+	static int calibrate(Duration target) {
+		char[] password = "calibration".toCharArray();
+		byte[] salt = new byte[16];
+		int probe = 10_000;
+		long best = Long.MAX_VALUE;
+		// Early runs are interpreted or mid-compilation, so the fastest run is taken as the steady-state cost.
+		// Probing stops after the time budget (but not before three runs) to keep startup quick; a machine still
+		// warming up then looks slower than it is, which errs towards fewer iterations, bounded by the floor.
+		long deadline = System.nanoTime() + CALIBRATION_BUDGET_NANOS;
+		for (int run = 0; run < 3 || (run < 50 && System.nanoTime() < deadline); run++) {
+			long started = System.nanoTime();
+			byte[] key = pbkdf2(password, salt, probe);
+			best = Math.min(best, System.nanoTime() - started);
+			Arrays.fill(key, (byte) 0);
+		}
+		double nanosPerIteration = Math.max(1.0, (double) best / probe);
+		long iterations = Math.round(target.toNanos() / nanosPerIteration / 1_000.0) * 1_000;
+		return (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, iterations));
+	}
+
 	static String generateSalt() {
 		byte[] salt = new byte[16];
 		RANDOM.nextBytes(salt);
@@ -22,26 +107,102 @@ final class PasswordHasher {
 	}
 
 	static String hash(char[] password, String saltBase64) {
+		return hash(password, saltBase64, iterations());
+	}
+
+	static String hash(char[] password, String saltBase64, int iterations) {
 		byte[] salt = Base64.getDecoder().decode(saltBase64);
-		byte[] hashedBytes = digest(password, salt);
-		String encoded = Base64.getEncoder().encodeToString(hashedBytes);
-		Arrays.fill(hashedBytes, (byte) 0);
+		byte[] key = pbkdf2(password, salt, iterations);
+		String encoded = PBKDF2_PREFIX + iterations + "$" + Base64.getEncoder().encodeToString(key);
+		Arrays.fill(key, (byte) 0);
 		Arrays.fill(salt, (byte) 0);
 		return encoded;
 	}
 
-	static boolean matches(char[] password, String saltBase64, String expectedHash) {
-		byte[] expected = Base64.getDecoder().decode(expectedHash);
+	/**
+	 * Verifies {@code password}. A stored hash made with fewer iterations than
+	 * are in use now (including the legacy format and malformed values) is
+	 * padded with throwaway PBKDF2 work up to the current cost, so the time
+	 * taken reveals neither which accounts exist nor which still have weak
+	 * hashes.
+	 */
+	static boolean matches(char[] password, String saltBase64, String storedHash) {
 		byte[] salt = Base64.getDecoder().decode(saltBase64);
-		byte[] actual = digest(password, salt);
+		byte[] expected;
+		byte[] actual;
+		int spent;
+		if (storedHash.startsWith(PBKDF2_PREFIX)) {
+			int separator = storedHash.indexOf('$', PBKDF2_PREFIX.length());
+			int iterations = storedIterations(storedHash);
+			if (separator < 0 || iterations < 1) {
+				LOG.log(System.Logger.Level.WARNING, "Malformed password hash; treating it as a mismatch");
+				Arrays.fill(salt, (byte) 0);
+				simulateVerification(password);
+				return false;
+			}
+			expected = Base64.getDecoder().decode(storedHash.substring(separator + 1));
+			actual = pbkdf2(password, salt, iterations);
+			spent = iterations;
+		} else {
+			expected = Base64.getDecoder().decode(storedHash);
+			actual = sha256(password, salt);
+			spent = 0;
+		}
 		boolean equal = MessageDigest.isEqual(expected, actual);
 		Arrays.fill(actual, (byte) 0);
 		Arrays.fill(expected, (byte) 0);
 		Arrays.fill(salt, (byte) 0);
+		int remaining = iterations() - spent;
+		if (remaining > 0) {
+			Arrays.fill(pbkdf2(password, new byte[16], remaining), (byte) 0);
+		}
 		return equal;
 	}
 
-	private static byte[] digest(char[] password, byte[] salt) {
+	/**
+	 * Whether {@code storedHash} is in the legacy format or was made with
+	 * clearly fewer iterations than are in use now. A stronger stored hash is
+	 * never downgraded.
+	 */
+	static boolean needsRehash(String storedHash) {
+		return storedIterations(storedHash) < iterations() * REHASH_BELOW;
+	}
+
+	/**
+	 * Costs as much as verifying a real password, for answering unknown
+	 * usernames in the same time as wrong passwords.
+	 */
+	static void simulateVerification(char[] password) {
+		Arrays.fill(pbkdf2(password, new byte[16], iterations()), (byte) 0);
+	}
+
+	// 0 for the legacy format, -1 if the count cannot be read.
+	private static int storedIterations(String storedHash) {
+		if (!storedHash.startsWith(PBKDF2_PREFIX)) {
+			return 0;
+		}
+		int separator = storedHash.indexOf('$', PBKDF2_PREFIX.length());
+		try {
+			return Integer.parseInt(storedHash.substring(PBKDF2_PREFIX.length(),
+					separator < 0 ? storedHash.length() : separator));
+		} catch (NumberFormatException ex) {
+			return -1;
+		}
+	}
+
+	private static byte[] pbkdf2(char[] password, byte[] salt, int iterations) {
+		PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, KEY_BITS);
+		try {
+			return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+		} catch (NoSuchAlgorithmException | InvalidKeySpecException ex) {
+			throw new IllegalStateException("PBKDF2WithHmacSHA256 not available", ex);
+		} finally {
+			spec.clearPassword();
+		}
+	}
+
+	// The original format: one SHA-256 over salt then password.
+	private static byte[] sha256(char[] password, byte[] salt) {
 		try {
 			MessageDigest digest = MessageDigest.getInstance("SHA-256");
 			digest.update(salt);
@@ -54,4 +215,3 @@ final class PasswordHasher {
 		}
 	}
 }
-
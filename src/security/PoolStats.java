@@ -0,0 +1,34 @@
+package security;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-time counters for the database connection pool.
+ */
+public record PoolStats(int active, int idle, int total, int maxSize, long borrows, long borrowWaitNanos,
+		long maxBorrowWaitNanos, long borrowTimeouts, long leaksDetected, long connectionsCreated,
+		long connectionsEvicted, long statementCacheHits, long statementCacheMisses,
+		long statementCacheEvictions) {
+
+	public double averageBorrowWaitMillis() {
+		return borrows == 0 ? 0.0 : (double) borrowWaitNanos / borrows / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	public double statementCacheHitRate() {
+		long lookups = statementCacheHits + statementCacheMisses;
+		return lookups == 0 ? 0.0 : (double) statementCacheHits / lookups;
+	}
+
+	public double maxBorrowWaitMillis() {
+		return (double) maxBorrowWaitNanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"active=%d idle=%d total=%d/%d borrows=%d avgWait=%.3fms maxWait=%.3fms timeouts=%d leaks=%d created=%d evicted=%d stmtHits=%d stmtMisses=%d stmtEvictions=%d",
+				active, idle, total, maxSize, borrows, averageBorrowWaitMillis(), maxBorrowWaitMillis(),
+				borrowTimeouts, leaksDetected, connectionsCreated, connectionsEvicted, statementCacheHits,
+				statementCacheMisses, statementCacheEvictions);
+	}
+}
@@ -0,0 +1,150 @@
+package security;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Brings the embedded database up to the current schema version. Every
+ * migration runs in its own transaction and is recorded in
+ * {@code schema_migrations}, so running the migrator again is a no-op.
+ */
+final class SchemaMigrator {
+	private static final System.Logger LOG = System.getLogger(SchemaMigrator.class.getName());
+
+	record Migration(int version, String description, List<String> statements) {
+	}
+
+	static final List<Migration> MIGRATIONS = List.of(
+			new Migration(1, "Baseline tables", List.of(
+					"""
+					CREATE TABLE IF NOT EXISTS users (
+						id INTEGER PRIMARY KEY AUTOINCREMENT,
+						username TEXT NOT NULL UNIQUE,
+						password_hash TEXT NOT NULL,
+						salt TEXT NOT NULL,
+						created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+						role TEXT NOT NULL DEFAULT 'STUDENT'
+					)
+					""",
+					"""
+					CREATE TABLE IF NOT EXISTS categories (
+						id INTEGER PRIMARY KEY AUTOINCREMENT,
+						name TEXT NOT NULL UNIQUE,
+						description TEXT
+					)
+					""",
+					"""
+					CREATE TABLE IF NOT EXISTS programs (
+						id INTEGER PRIMARY KEY AUTOINCREMENT,
+						name TEXT NOT NULL UNIQUE,
+						category_id INTEGER NOT NULL,
+						min_salary REAL NOT NULL,
+						min_previous_gpa REAL NOT NULL,
+						interest_level TEXT NOT NULL,
+						post_degree_gpa REAL NOT NULL,
+						created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+						FOREIGN KEY(category_id) REFERENCES categories(id) ON DELETE CASCADE
+					)
+					""")),
+			// Expression indexes must match the lower(column) = lower(?) predicates exactly to be used.
+			new Migration(2, "Case-insensitive lookup and foreign-key indexes", List.of(
+					"CREATE INDEX IF NOT EXISTS idx_users_username_lower ON users(lower(username))",
+					"CREATE INDEX IF NOT EXISTS idx_categories_name_lower ON categories(lower(name))",
+					"CREATE INDEX IF NOT EXISTS idx_programs_name_lower ON programs(lower(name))",
+					"CREATE INDEX IF NOT EXISTS idx_programs_category_id ON programs(category_id)")),
+			// Leads with min_salary for the range seek and carries every column the pushed-down
+			// recommendation query reads, so it never has to visit the table rows.
+			new Migration(3, "Covering index for recommendation pushdown", List.of(
+					"""
+					CREATE INDEX IF NOT EXISTS idx_programs_eligibility
+					ON programs(min_salary, min_previous_gpa, interest_level, post_degree_gpa, category_id, name)
+					""")),
+			// One counter bumped by every row change to the catalog tables, whoever makes it. A reader sees the
+			// version its snapshot corresponds to, and a writer sees the version its own write produced.
+			new Migration(4, "Catalog data version", List.of(
+					"""
+					CREATE TABLE IF NOT EXISTS catalog_version (
+						id INTEGER PRIMARY KEY CHECK (id = 1),
+						version INTEGER NOT NULL
+					)
+					""",
+					"INSERT OR IGNORE INTO catalog_version(id, version) VALUES (1, 0)",
+					versionTrigger("programs", "INSERT"),
+					versionTrigger("programs", "UPDATE"),
+					versionTrigger("programs", "DELETE"),
+					versionTrigger("categories", "INSERT"),
+					versionTrigger("categories", "UPDATE"),
+					versionTrigger("categories", "DELETE"))));
+
+	private static String versionTrigger(String table, String event) {
+		return "CREATE TRIGGER IF NOT EXISTS " + table + "_" + event.toLowerCase(Locale.ROOT) + "_version AFTER " + event
+				+ " ON " + table + " BEGIN UPDATE catalog_version SET version = version + 1 WHERE id = 1; END";
+	}
+
+	private SchemaMigrator() {
+	}
+
+	static int migrate(Connection connection) throws SQLException {
+		try (Statement stmt = connection.createStatement()) {
+			stmt.executeUpdate("""
+					CREATE TABLE IF NOT EXISTS schema_migrations (
+						version INTEGER PRIMARY KEY,
+						description TEXT NOT NULL,
+						applied_at TEXT DEFAULT CURRENT_TIMESTAMP
+					)
+					""");
+		}
+
+		int current = currentVersion(connection);
+		for (Migration migration : MIGRATIONS) {
+			if (migration.version() > current) {
+				apply(connection, migration);
+				current = migration.version();
+			}
+		}
+		return current;
+	}
+
+	static int currentVersion(Connection connection) throws SQLException {
+		try (Statement stmt = connection.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_migrations")) {
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+	}
+
+	private static void apply(Connection connection, Migration migration) throws SQLException {
+		boolean autoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		try {
+			try (Statement stmt = connection.createStatement()) {
+				for (String sql : migration.statements()) {
+					stmt.executeUpdate(sql);
+				}
+			}
+			try (PreparedStatement stmt = connection.prepareStatement(
+					"INSERT OR IGNORE INTO schema_migrations(version, description) VALUES (?, ?)")) {
+				stmt.setInt(1, migration.version());
+				stmt.setString(2, migration.description());
+				stmt.executeUpdate();
+			}
+			connection.commit();
+			LOG.log(System.Logger.Level.INFO,
+					"Applied schema migration " + migration.version() + ": " + migration.description());
+		} catch (SQLException ex) {
+			SQLException failure = new SQLException("Schema migration " + migration.version() + " failed", ex);
+			try {
+				connection.rollback();
+			} catch (SQLException rollbackFailure) {
+				failure.addSuppressed(rollbackFailure);
+			}
+			throw failure;
+		} finally {
+			connection.setAutoCommit(autoCommit);
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package security;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Connection-level SQLite tuning applied to every physical connection the pool
+ * opens. WAL journaling lets student reads proceed while an admin write is in
+ * flight; the remaining pragmas trade durability and memory for latency and can
+ * be adjusted per deployment through {@code degree.db.*} system properties.
+ */
+record SqliteProfile(String journalMode, String synchronous, long mmapSize, long cacheSize, String tempStore,
+		long busyTimeoutMillis) {
+
+	private static final System.Logger LOG = System.getLogger(SqliteProfile.class.getName());
+
+	private static final List<String> JOURNAL_MODES = List.of("DELETE", "TRUNCATE", "PERSIST", "MEMORY", "WAL", "OFF");
+	// Index in these lists is the numeric value SQLite reports back for the pragma.
+	private static final List<String> SYNCHRONOUS_LEVELS = List.of("OFF", "NORMAL", "FULL", "EXTRA");
+	private static final List<String> TEMP_STORES = List.of("DEFAULT", "FILE", "MEMORY");
+
+	SqliteProfile {
+		// Pragmas cannot be bound as parameters, so only known keywords are accepted.
+		journalMode = requireOneOf("journal mode", journalMode, JOURNAL_MODES);
+		synchronous = requireOneOf("synchronous level", synchronous, SYNCHRONOUS_LEVELS);
+		tempStore = requireOneOf("temp store", tempStore, TEMP_STORES);
+		if (mmapSize < 0 || busyTimeoutMillis < 0) {
+			throw new IllegalArgumentException("mmap size and busy timeout must not be negative.");
+		}
+	}
+
+	static SqliteProfile fromSystemProperties() {
+		return new SqliteProfile(
+				System.getProperty("degree.db.journalMode", "WAL"),
+				System.getProperty("degree.db.synchronous", "NORMAL"),
+				Long.getLong("degree.db.mmapSize", 64L * 1024 * 1024),
+				// Negative values are KiB, positive values are pages (SQLite convention).
+				Long.getLong("degree.db.cacheSize", -8_000L),
+				System.getProperty("degree.db.tempStore", "MEMORY"),
+				Long.getLong("degree.db.busyTimeoutMs", 5_000L));
+	}
+
+	void apply(Connection connection) throws SQLException {
+		try (Statement stmt = connection.createStatement()) {
+			// busy_timeout first so the journal mode switch can wait out a concurrent writer.
+			stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+			try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode = " + journalMode)) {
+				rs.next();
+			}
+			stmt.execute("PRAGMA synchronous = " + synchronous);
+			stmt.execute("PRAGMA mmap_size = " + mmapSize);
+			stmt.execute("PRAGMA cache_size = " + cacheSize);
+			stmt.execute("PRAGMA temp_store = " + tempStore);
+		}
+	}
+
+	/**
+	 * Reads back the pragmas actually in effect on {@code connection}, logs them
+	 * and warns about any that SQLite did not accept (for example WAL on a
+	 * filesystem without shared-memory support).
+	 */
+	Map<String, String> selfCheck(Connection connection) throws SQLException {
+		Map<String, String> effective = new LinkedHashMap<>();
+		try (Statement stmt = connection.createStatement()) {
+			for (String pragma : new String[] { "journal_mode", "synchronous", "mmap_size", "cache_size",
+					"temp_store", "busy_timeout" }) {
+				try (ResultSet rs = stmt.executeQuery("PRAGMA " + pragma)) {
+					effective.put(pragma, rs.next() ? rs.getString(1) : "?");
+				}
+			}
+		}
+		LOG.log(System.Logger.Level.INFO, "SQLite pragmas in effect: " + effective);
+
+		expect(effective, "journal_mode", journalMode.toLowerCase(Locale.ROOT));
+		expect(effective, "synchronous", String.valueOf(SYNCHRONOUS_LEVELS.indexOf(synchronous)));
+		expect(effective, "cache_size", String.valueOf(cacheSize));
+		expect(effective, "temp_store", String.valueOf(TEMP_STORES.indexOf(tempStore)));
+		expect(effective, "busy_timeout", String.valueOf(busyTimeoutMillis));
+		// mmap_size is capped by the SQLITE_MAX_MMAP_SIZE compile option, so a smaller value is expected on some builds.
+		return effective;
+	}
+
+	private static void expect(Map<String, String> effective, String pragma, String requested) {
+		String actual = effective.get(pragma);
+		if (!requested.equals(actual)) {
+			LOG.log(System.Logger.Level.WARNING,
+					"SQLite ignored PRAGMA " + pragma + ": requested " + requested + " but got " + actual);
+		}
+	}
+
+	private static String requireOneOf(String label, String value, List<String> allowed) {
+		String normalized = value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+		if (!allowed.contains(normalized)) {
+			throw new IllegalArgumentException("Unsupported SQLite " + label + ": " + value);
+		}
+		return normalized;
+	}
+}
@@ -0,0 +1,207 @@
+package security;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements bound to one physical connection, keyed by
+ * SQL text. A pooled connection is only ever used by one borrower at a time, so
+ * the cache itself needs no locking.
+ */
+final class StatementCache {
+	private static final System.Logger LOG = System.getLogger(StatementCache.class.getName());
+
+	// Shared by every connection in a pool so the hit rate can be reported as a whole.
+	static final class Counters {
+		final LongAdder hits = new LongAdder();
+		final LongAdder misses = new LongAdder();
+		final LongAdder evictions = new LongAdder();
+	}
+
+	private record Key(String sql, int autoGeneratedKeys) {
+	}
+
+	private final int capacity;
+	private final Counters counters;
+	private final LinkedHashMap<Key, CachedStatement> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	StatementCache(int capacity, Counters counters) {
+		this.capacity = capacity;
+		this.counters = counters;
+	}
+
+	PreparedStatement prepare(Connection physical, Connection owner, String sql, int autoGeneratedKeys)
+			throws SQLException {
+		if (capacity <= 0) {
+			return prepareUncached(physical, sql, autoGeneratedKeys);
+		}
+		Key key = new Key(sql, autoGeneratedKeys);
+		CachedStatement cached = entries.get(key);
+		if (cached != null && cached.broken) {
+			entries.remove(key);
+			cached.closeQuietly();
+			cached = null;
+		}
+		if (cached != null && !cached.inUse) {
+			counters.hits.increment();
+			return cached.checkOut(owner);
+		}
+		counters.misses.increment();
+		PreparedStatement statement = prepareUncached(physical, sql, autoGeneratedKeys);
+		if (cached != null) {
+			// Same SQL already checked out on this connection (nested use); hand out an uncached copy.
+			return statement;
+		}
+		cached = new CachedStatement(statement);
+		entries.put(key, cached);
+		evictOverflow();
+		return cached.checkOut(owner);
+	}
+
+	private static PreparedStatement prepareUncached(Connection physical, String sql, int autoGeneratedKeys)
+			throws SQLException {
+		if (autoGeneratedKeys == Statement.NO_GENERATED_KEYS) {
+			return physical.prepareStatement(sql);
+		}
+		return physical.prepareStatement(sql, autoGeneratedKeys);
+	}
+
+	private void evictOverflow() {
+		Iterator<CachedStatement> it = entries.values().iterator();
+		while (entries.size() > capacity && it.hasNext()) {
+			CachedStatement eldest = it.next();
+			if (!eldest.inUse) {
+				it.remove();
+				eldest.closeQuietly();
+				counters.evictions.increment();
+			}
+		}
+	}
+
+	// Called when the owning connection goes back to the pool.
+	void releaseAll() {
+		for (CachedStatement cached : entries.values()) {
+			if (cached.inUse) {
+				cached.checkIn();
+			}
+		}
+	}
+
+	void clear() {
+		for (Map.Entry<Key, CachedStatement> entry : entries.entrySet()) {
+			entry.getValue().closeQuietly();
+		}
+		entries.clear();
+	}
+
+	private static final class CachedStatement {
+		private final PreparedStatement physical;
+		private boolean inUse;
+		// Set when a reset failed; the statement is closed instead of being handed out again.
+		private boolean broken;
+		private Checkout current;
+
+		CachedStatement(PreparedStatement physical) {
+			this.physical = physical;
+		}
+
+		PreparedStatement checkOut(Connection owner) {
+			inUse = true;
+			current = new Checkout(this, owner);
+			return current.proxy;
+		}
+
+		void checkIn() {
+			ResultSet open = null;
+			if (current != null) {
+				current.closed = true;
+				open = current.lastResult;
+				current = null;
+			}
+			inUse = false;
+			// The next borrower must not see this one's open cursor, queued batch or bindings.
+			// The cursor is tracked by the proxy because sqlite-jdbc's getResultSet() refuses
+			// to hand back a result set that was already returned.
+			try {
+				if (open != null) {
+					open.close();
+				}
+				physical.clearBatch();
+				physical.clearParameters();
+			} catch (SQLException ex) {
+				broken = true;
+				LOG.log(System.Logger.Level.DEBUG, "Failed to reset cached statement", ex);
+			}
+		}
+
+		void closeQuietly() {
+			try {
+				physical.close();
+			} catch (SQLException ex) {
+				LOG.log(System.Logger.Level.DEBUG, "Failed to close cached statement", ex);
+			}
+		}
+	}
+
+	// One borrower's view of a cached statement; closing it returns the statement to the cache.
+	private static final class Checkout implements InvocationHandler {
+		private final CachedStatement cached;
+		private final Connection owner;
+		private final PreparedStatement proxy;
+		private boolean closed;
+		private ResultSet lastResult;
+
+		Checkout(CachedStatement cached, Connection owner) {
+			this.cached = cached;
+			this.owner = owner;
+			this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, this);
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!closed) {
+					cached.checkIn();
+				}
+				return null;
+			case "isClosed":
+				return closed || cached.physical.isClosed();
+			case "getConnection":
+				return owner;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "CachedStatement[" + cached.physical + "]";
+			default:
+				break;
+			}
+			if (closed) {
+				throw new SQLException("Statement has already been closed");
+			}
+			try {
+				Object result = method.invoke(cached.physical, args);
+				if (result instanceof ResultSet rs) {
+					lastResult = rs;
+				}
+				return result;
+			} catch (InvocationTargetException ex) {
+				throw ex.getCause();
+			}
+		}
+	}
+}
@@ -1,34 +1,53 @@
 package view;
 
 
+import java.sql.SQLException;
+
 import javax.swing.SwingUtilities;
 
+import controllers.AsyncRecommendationService;
 import controllers.ProgramAdminService;
+import controllers.RecommendationService;
 import model.ProgramRepository;
 import security.AuthService;
+import security.DatabaseManager;
 import security.User;
 
 public class App {
+	private static final System.Logger LOG = System.getLogger(App.class.getName());
+
 	public static void main(String[] args) {
+		try {
+			DatabaseManager.initialize();
+		} catch (SQLException ex) {
+			// Not fatal: every database call retries, and the login screen reports the error if it persists.
+			LOG.log(System.Logger.Level.WARNING, "Unable to open the database at startup", ex);
+		}
+		AuthService.initializeHashing();
 		var repo = ProgramRepository.getInstance();
 		var authService = new AuthService();
+		var recommendationService = new AsyncRecommendationService(RecommendationService.create(repo));
 
-		SwingUtilities.invokeLater(() -> showLogin(authService, repo));
+		SwingUtilities.invokeLater(() -> showLogin(authService, repo, recommendationService));
 	}
 
-	private static void showLogin(AuthService authService, ProgramRepository repo) {
-		var loginFrame = new LoginFrame(authService, user -> openDashboard(repo, authService, user));
+	private static void showLogin(AuthService authService, ProgramRepository repo,
+			AsyncRecommendationService recommendationService) {
+		var loginFrame = new LoginFrame(authService,
+				user -> openDashboard(repo, authService, recommendationService, user));
 		loginFrame.setVisible(true);
 	}
 
-	private static void openDashboard(ProgramRepository repo, AuthService authService, User user) {
-		Runnable onLogout = () -> SwingUtilities.invokeLater(() -> showLogin(authService, repo));
+	private static void openDashboard(ProgramRepository repo, AuthService authService,
+			AsyncRecommendationService recommendationService, User user) {
+		Runnable onLogout = () -> SwingUtilities
+				.invokeLater(() -> showLogin(authService, repo, recommendationService));
 		if (user.isAdmin()) {
 			var adminService = new ProgramAdminService(repo, user);
 			var frame = new AdminFrame(adminService, onLogout);
 			frame.setVisible(true);
 		} else {
-			var frame = new MainFrame(repo, user, onLogout);
+			var frame = new MainFrame(recommendationService, user, onLogout);
 			frame.setVisible(true);
 		}
 	}
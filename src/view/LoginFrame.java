@@ -18,6 +18,10 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 
 import javax.swing.BorderFactory;
@@ -34,6 +38,7 @@ import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
 
 import security.AuthService;
+import security.AuthenticationBusyException;
 import security.User;
 import validation.Validator;
 
@@ -52,6 +57,13 @@ public class LoginFrame extends JFrame {
 	private final JPasswordField registerPasswordField = new JPasswordField(18);
 	private final JTextArea registerStatusArea = createStatusArea(Color.RED);
 
+	private final JButton loginButton = new JButton("Sign In");
+	private final JButton registerButton = new JButton("Create Account");
+
+	// Password hashing is deliberately slow, so sign-in and registration run here rather than on the event thread.
+	private static final ExecutorService AUTH_EXECUTOR = Executors
+			.newThreadPerTaskExecutor(Thread.ofVirtual().name("sign-in-", 0).factory());
+
 	// For dragging window
 	private Point mouseDownCompCoords;
 
@@ -209,7 +221,6 @@ public class LoginFrame extends JFrame {
 		addLabeledField(panel, c, "Password", loginPasswordField);
 
 		// Style the button
-		JButton loginButton = new JButton("Sign In");
 		styleButton(loginButton);
 		loginButton.addActionListener(e -> handleLogin());
 		c.gridy++;
@@ -249,7 +260,6 @@ public class LoginFrame extends JFrame {
 		c.insets = new Insets(0, 5, 0, 5);
 		panel.add(hint, c);
 
-		JButton registerButton = new JButton("Create Account");
 		styleButton(registerButton);
 		registerButton.addActionListener(e -> handleRegistration());
 		c.gridy++;
@@ -282,24 +292,46 @@ public class LoginFrame extends JFrame {
 			return;
 		}
 
-		try {
-			Optional<User> user = authService.authenticate(username, password);
+		setStatus(loginStatusArea, "Signing in…", new Color(108, 117, 125));
+		loginButton.setEnabled(false);
+		loginPasswordField.setText("");
+		CompletableFuture.supplyAsync(() -> {
+			try {
+				return authService.authenticate(username, password);
+			} catch (SQLException ex) {
+				throw new CompletionException(ex);
+			} finally {
+				Arrays.fill(password, '\0');
+			}
+		}, AUTH_EXECUTOR).whenComplete(
+				(user, error) -> SwingUtilities.invokeLater(() -> showLoginResult(user, error)));
+	}
+
+	private void showLoginResult(Optional<User> user, Throwable error) {
+		loginButton.setEnabled(true);
+		if (!isDisplayable()) {
+			return;
+		}
+		Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+		if (cause == null) {
 			if (user.isPresent()) {
 				setStatus(loginStatusArea, "Login successful. Loading dashboard…", new Color(40, 167, 69));
-				SwingUtilities.invokeLater(() -> {
-					dispose();
-					onAuthenticated.accept(user.get());
-				});
+				dispose();
+				onAuthenticated.accept(user.get());
 			} else {
 				setStatus(loginStatusArea, "Invalid username or password.", Color.RED);
 			}
-		} catch (SQLException ex) {
+		} else if (cause instanceof AuthenticationBusyException ex) {
+			setStatus(loginStatusArea, ex.getMessage(), Color.RED);
+		} else if (cause instanceof SQLException ex) {
+			loginStatusArea.setText(" ");
 			showError("Unable to sign in", ex);
-		} catch (IllegalStateException ex) {
+		} else if (cause instanceof IllegalStateException ex) {
+			loginStatusArea.setText(" ");
 			showError("Database unavailable", ex);
-		} finally {
-			Arrays.fill(password, '\0');
-			loginPasswordField.setText("");
+		} else {
+			loginStatusArea.setText(" ");
+			showError("Unable to sign in", new IllegalStateException("Unexpected error while signing in.", cause));
 		}
 	}
 
@@ -318,19 +350,41 @@ public class LoginFrame extends JFrame {
 			return;
 		}
 
-		try {
-			User user = authService.register(username, password);
+		setStatus(registerStatusArea, "Creating account…", new Color(108, 117, 125));
+		registerButton.setEnabled(false);
+		CompletableFuture.supplyAsync(() -> {
+			try {
+				return authService.register(username, password);
+			} catch (SQLException ex) {
+				throw new CompletionException(ex);
+			} finally {
+				Arrays.fill(password, '\0');
+			}
+		}, AUTH_EXECUTOR).whenComplete(
+				(user, error) -> SwingUtilities.invokeLater(() -> showRegistrationResult(user, error)));
+	}
+
+	private void showRegistrationResult(User user, Throwable error) {
+		registerButton.setEnabled(true);
+		if (!isDisplayable()) {
+			return;
+		}
+		Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+		if (cause == null) {
 			setStatus(registerStatusArea,
 					"Account created! Switch to Sign In tab, " + user.getUsername() + ".", new Color(40, 167, 69));
 			registerPasswordField.setText("");
-		} catch (IllegalArgumentException ex) {
-			setStatus(registerStatusArea, ex.getMessage(), Color.RED);
-		} catch (SQLException ex) {
+		} else if (cause instanceof IllegalArgumentException || cause instanceof AuthenticationBusyException) {
+			setStatus(registerStatusArea, cause.getMessage(), Color.RED);
+		} else if (cause instanceof SQLException ex) {
+			registerStatusArea.setText(" ");
 			showError("Unable to register user", ex);
-		} catch (IllegalStateException ex) {
+		} else if (cause instanceof IllegalStateException ex) {
+			registerStatusArea.setText(" ");
 			showError("Database unavailable", ex);
-		} finally {
-			Arrays.fill(password, '\0');
+		} else {
+			registerStatusArea.setText(" ");
+			showError("Unable to register user", new IllegalStateException("Unexpected error while registering.", cause));
 		}
 	}
 
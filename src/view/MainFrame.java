@@ -21,6 +21,11 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -43,13 +48,20 @@ import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 
+import controllers.AsyncRecommendationService;
+import controllers.FacetedResults;
+import controllers.NearMiss;
 import controllers.RecommendationEngine;
 import model.Program;
-import model.ProgramRepository;
 import security.User;
 
 public class MainFrame extends JFrame {
 private static final int SESSION_TIMEOUT_MS = 15_000; // the maximum should be 3 min to run timeout for the user page
+	private static final int NEAR_MISS_LIMIT = 5;
+	// Categories named in the status line; the rest are summed as "other categories".
+	private static final int FACET_LIMIT = 3;
+	private static final String EXTRA_HOURS_HEADER = "Extra Study Hours/Day";
+	private static final String MISSED_BY_HEADER = "Missed By";
 	private final JTextField salaryField = new JTextField(15);
 	private final JSpinner gpaSpinner = new JSpinner(new SpinnerNumberModel(3.0, 0.0, 4.0, 0.1));
 	private JTextField gpaTextField = ((JSpinner.DefaultEditor) gpaSpinner.getEditor()).getTextField();
@@ -59,7 +71,7 @@ private static final int SESSION_TIMEOUT_MS = 15_000; // the maximum should be 3
 	private final JButton clearBtn = new JButton("Clear");
 	private final DefaultTableModel tableModel = new DefaultTableModel(
 			new String[] { "Program", "Category", "Min Salary", "GPA Required",
-					"Analytical Level", "Post-Degree GPA", "Extra Study Hours/Day" },
+					"Analytical Level", "Post-Degree GPA", EXTRA_HOURS_HEADER },
 			0) {
 		@Override
 		public boolean isCellEditable(int row, int column) {
@@ -68,19 +80,21 @@ private static final int SESSION_TIMEOUT_MS = 15_000; // the maximum should be 3
 	};
 	private final JTable resultTable = new JTable(tableModel);
 	private final JLabel statusLabel = new JLabel(" ");
-	private final ProgramRepository repository;
+	private final AsyncRecommendationService recommendationService;
 	private final User user;
 	private final Runnable onLogout;
 	private final JButton logoutButton = new JButton("Log Out");
 	private Timer inactivityTimer;
 	private AWTEventListener activityListener;
+	// Latest search (or its near-miss follow-up); an older one still running is cancelled when a new one starts.
+	private CompletableFuture<?> pendingSearch;
 
 	// For dragging window
 	private Point mouseDownCompCoords;
 
-	public MainFrame(ProgramRepository repository, User user, Runnable onLogout) {
+	public MainFrame(AsyncRecommendationService recommendationService, User user, Runnable onLogout) {
 		super("  Degree Program Recommender");
-		this.repository = Objects.requireNonNull(repository, "repository");
+		this.recommendationService = Objects.requireNonNull(recommendationService, "recommendationService");
 		this.user = Objects.requireNonNull(user, "user");
 		this.onLogout = Objects.requireNonNull(onLogout, "onLogout");
 
@@ -489,21 +503,17 @@ private static final int SESSION_TIMEOUT_MS = 15_000; // the maximum should be 3
 			String interest = (String) interestCombo.getSelectedItem();
 			Program.InterestLevel level = Program.InterestLevel.fromString(interest);
 
-			RecommendationEngine engine = new RecommendationEngine(repository.getPrograms());
 			RecommendationEngine.Input input = new RecommendationEngine.Input(salary, prevGpa, level);
-			List<RecommendationEngine.Recommendation> recs = engine.recommend(input);
-			refreshTable(recs);
-
-			if (recs.isEmpty()) {
-				statusLabel.setText("No programs matched your criteria. Try adjusting your preferences.");
-				statusLabel.setForeground(new Color(220, 53, 69));
-				JOptionPane.showMessageDialog(this,
-						"No programs matched the provided criteria.\nTry lowering your salary requirement or adjusting other preferences.",
-						"No Matches Found", JOptionPane.INFORMATION_MESSAGE);
-			} else {
-				statusLabel.setText(String.format("Found %d matching program(s)", recs.size()));
-				statusLabel.setForeground(new Color(40, 167, 69));
+			// The search runs on a virtual thread; results are applied back on the event thread.
+			if (pendingSearch != null) {
+				pendingSearch.cancel(true);
 			}
+			var search = recommendationService.recommendWithFacetsAsync(input);
+			pendingSearch = search;
+			statusLabel.setText("Searching...");
+			statusLabel.setForeground(new Color(108, 117, 125));
+			search.whenComplete(
+					(found, error) -> SwingUtilities.invokeLater(() -> showResults(search, input, found, error)));
 		} catch (NumberFormatException ex) {
 			statusLabel.setText("Error: Invalid salary value");
 			statusLabel.setForeground(new Color(220, 53, 69));
@@ -519,16 +529,93 @@ private static final int SESSION_TIMEOUT_MS = 15_000; // the maximum should be 3
 		}
 	}
 
+	private void showResults(CompletableFuture<?> search, RecommendationEngine.Input input, FacetedResults found,
+			Throwable error) {
+		if (search != pendingSearch || !isDisplayable()) {
+			return; // superseded by a newer search, or the window has closed
+		}
+		pendingSearch = null;
+		if (error != null) {
+			showSearchError(error);
+			return;
+		}
+		List<RecommendationEngine.Recommendation> recs = found.results();
+		refreshTable(recs);
+
+		if (recs.isEmpty()) {
+			// Rather than an empty table, offer the programs the student misses by the least.
+			var suggestions = recommendationService.nearMissesAsync(input, NEAR_MISS_LIMIT);
+			pendingSearch = suggestions;
+			suggestions.whenComplete(
+					(misses, failure) -> SwingUtilities.invokeLater(() -> showNearMisses(suggestions, misses, failure)));
+		} else {
+			statusLabel.setText(String.format("Found %d matching program(s): %s", recs.size(),
+					found.facets().summary(FACET_LIMIT)));
+			statusLabel.setForeground(new Color(40, 167, 69));
+		}
+	}
+
+	private void showNearMisses(CompletableFuture<?> search, List<NearMiss> misses, Throwable error) {
+		if (search != pendingSearch || !isDisplayable()) {
+			return;
+		}
+		pendingSearch = null;
+		if (error == null && !misses.isEmpty()) {
+			refreshNearMissTable(misses);
+			statusLabel.setText(String.format(
+					"No programs matched your criteria. Showing the %d closest; \"%s\" says what each one needs.",
+					misses.size(), MISSED_BY_HEADER));
+			statusLabel.setForeground(new Color(220, 53, 69));
+			JOptionPane.showMessageDialog(this,
+					"No programs matched the provided criteria.\nThe closest programs are listed instead, with what you would need to change to qualify.",
+					"No Matches Found", JOptionPane.INFORMATION_MESSAGE);
+			return;
+		}
+		Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+		if (cause instanceof CancellationException) {
+			return;
+		}
+		statusLabel.setText("No programs matched your criteria. Try adjusting your preferences.");
+		statusLabel.setForeground(new Color(220, 53, 69));
+		JOptionPane.showMessageDialog(this,
+				"No programs matched the provided criteria.\nTry lowering your salary requirement or adjusting other preferences.",
+				"No Matches Found", JOptionPane.INFORMATION_MESSAGE);
+	}
+
+	private void showSearchError(Throwable error) {
+		Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+		if (cause instanceof CancellationException) {
+			return;
+		}
+		String message;
+		if (cause instanceof TimeoutException) {
+			message = "The search took too long. Please try again.";
+		} else if (cause instanceof RejectedExecutionException) {
+			message = "The server is busy. Please try again in a moment.";
+		} else {
+			message = "Unable to load recommendations. Please try again later.";
+		}
+		statusLabel.setText("Error: " + message);
+		statusLabel.setForeground(new Color(220, 53, 69));
+		JOptionPane.showMessageDialog(this, message, "Search Failed", JOptionPane.ERROR_MESSAGE);
+	}
+
 	private void onClear() {
+		if (pendingSearch != null) {
+			pendingSearch.cancel(true);
+			pendingSearch = null;
+		}
 		salaryField.setText("5000");
 		gpaSpinner.setValue(3.0);
 		interestCombo.setSelectedIndex(1);
 		tableModel.setRowCount(0);
+		setLastColumnHeader(EXTRA_HOURS_HEADER);
 		statusLabel.setText(" ");
 	}
 
 	private void refreshTable(List<RecommendationEngine.Recommendation> recs) {
 		tableModel.setRowCount(0);
+		setLastColumnHeader(EXTRA_HOURS_HEADER);
 		for (var r : recs) {
 			Program p = r.program;
 			tableModel.addRow(new Object[] {
@@ -543,6 +630,32 @@ private static final int SESSION_TIMEOUT_MS = 15_000; // the maximum should be 3
 		}
 	}
 
+	private void refreshNearMissTable(List<NearMiss> misses) {
+		tableModel.setRowCount(0);
+		setLastColumnHeader(MISSED_BY_HEADER);
+		for (NearMiss miss : misses) {
+			Program p = miss.program();
+			tableModel.addRow(new Object[] {
+					p.getName(),
+					p.getCategory(),
+					String.format("SAR %.0f", p.getMinIndustrySalary()),
+					String.format("%.2f", p.getMinRequiredPreviousGPA()),
+					p.getAnalyticalInterestRequired(),
+					String.format("%.2f", p.getRequiredAcceptableGPAAfterDegree()),
+					miss.describe()
+			});
+		}
+	}
+
+	// The last column shows study hours for matches and the missed requirements for near misses.
+	private void setLastColumnHeader(String header) {
+		var column = resultTable.getColumnModel().getColumn(tableModel.getColumnCount() - 1);
+		if (!header.equals(column.getHeaderValue())) {
+			column.setHeaderValue(header);
+			resultTable.getTableHeader().repaint();
+		}
+	}
+
 	private void setupSessionMonitoring() {
 		inactivityTimer = new Timer(SESSION_TIMEOUT_MS, new ActionListener() {
 			@Override
@@ -605,6 +718,10 @@ private static final int SESSION_TIMEOUT_MS = 15_000; // the maximum should be 3
 	@Override
 	public void dispose() {
 		cleanupSessionMonitoring();
+		if (pendingSearch != null) {
+			pendingSearch.cancel(true);
+			pendingSearch = null;
+		}
 		super.dispose();
 	}
 }
\ No newline at end of file